@@ -0,0 +1,46 @@
+package org.folio.benchmark;
+
+import org.folio.util.DateTimeUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.folio.config.Constants.ISO18626_DATE_FORMAT;
+
+/**
+ * Formatting of the ISO18626 timestamps put on every submission and every sa-update confirmation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateTimeBenchmark {
+
+  private final ZonedDateTime fixed = ZonedDateTime.parse("2021-01-04T10:15:30Z");
+
+  @Benchmark
+  public String dtToString() {
+    return DateTimeUtils.dtToString(fixed, ISO18626_DATE_FORMAT);
+  }
+
+  @Benchmark
+  public String dtToStringNow() {
+    return DateTimeUtils.dtToString(ZonedDateTime.now(), ISO18626_DATE_FORMAT);
+  }
+
+  @Benchmark
+  public String nowIso18626() {
+    return DateTimeUtils.now(ISO18626_DATE_FORMAT);
+  }
+}
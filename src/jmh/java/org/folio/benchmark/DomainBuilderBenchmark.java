@@ -0,0 +1,78 @@
+package org.folio.benchmark;
+
+import io.vertx.core.json.JsonObject;
+import org.folio.domain.SaUpdateConfirmation;
+import org.folio.domain.SubmittableRequest;
+import org.folio.domain.SubmittableSubmission;
+import org.folio.domain.SupplyingAgency;
+import org.folio.rest.jaxrs.model.Request;
+import org.folio.rest.jaxrs.model.SaMessageRequest;
+import org.folio.rest.jaxrs.model.SaMessageResponse;
+import org.folio.rest.jaxrs.model.SaRequestRequest;
+import org.folio.rest.jaxrs.model.Submission;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The objects built for every sa-request and sa-update: the submission and the local request stored for an sa-request,
+ * the body sent to the supplier and the confirmation returned for an sa-update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomainBuilderBenchmark {
+
+  private static final String STATUS_ID = "49600f35-e2af-45ef-a03c-ee0de7ec3c89";
+
+  private SaRequestRequest saRequest;
+  private SaMessageRequest saUpdate;
+  private Submission submission;
+
+  @Setup
+  public void setUp() {
+    saRequest = Fixtures.load("sa-request.json", SaRequestRequest.class);
+    saUpdate = Fixtures.load("sa-update.json", SaMessageRequest.class);
+    submission = new SubmittableSubmission(saRequest, STATUS_ID).build()
+      .withId(UUID.randomUUID().toString());
+  }
+
+  @Benchmark
+  public Submission submittableSubmission() {
+    return new SubmittableSubmission(saRequest, STATUS_ID).build();
+  }
+
+  @Benchmark
+  public Request submittableRequest() {
+    return new SubmittableRequest(submission, saRequest).build();
+  }
+
+  @Benchmark
+  public JsonObject supplyingAgencyRequest() {
+    return new SupplyingAgency().buildRequest(saRequest);
+  }
+
+  @Benchmark
+  public String supplyingAgencyRequestEncoded() {
+    // The body is written out once more when the request to the connector is built
+    return JsonObject.mapFrom(new SupplyingAgency().buildRequest(saRequest)).toString();
+  }
+
+  @Benchmark
+  public SaMessageResponse saUpdateConfirmation() {
+    return new SaUpdateConfirmation(saUpdate).build();
+  }
+}
@@ -0,0 +1,27 @@
+package org.folio.benchmark;
+
+import io.vertx.core.buffer.Buffer;
+import org.folio.util.JsonCodec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+
+/**
+ * Loads the payloads the benchmarks work on from {@code src/jmh/resources/benchmark}.
+ */
+final class Fixtures {
+
+  private Fixtures() {
+  }
+
+  static <T> T load(String name, Class<T> type) {
+    try (InputStream in = Fixtures.class.getResourceAsStream("/benchmark/" + name)) {
+      Objects.requireNonNull(in, "Missing benchmark fixture " + name);
+      return JsonCodec.decode(Buffer.buffer(in.readAllBytes()), type);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package org.folio.benchmark;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import org.folio.domain.SubmittableRequest;
+import org.folio.domain.SubmittableSubmission;
+import org.folio.rest.jaxrs.model.Request;
+import org.folio.rest.jaxrs.model.SaRequestRequest;
+import org.folio.rest.jaxrs.model.Submission;
+import org.folio.util.JsonCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trips of the records the storage services write and read. The {@code mapFrom}/{@code mapTo} benchmarks go
+ * through a {@link JsonObject} the way the services used to, the codec benchmarks go straight between the model and the
+ * buffer the way {@link org.folio.service.BaseService} does now.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonMappingBenchmark {
+
+  private Submission submission;
+  private Request request;
+  private Buffer submissionBody;
+  private Buffer requestBody;
+
+  @Setup
+  public void setUp() {
+    SaRequestRequest saRequest = Fixtures.load("sa-request.json", SaRequestRequest.class);
+    submission = new SubmittableSubmission(saRequest, UUID.randomUUID().toString()).build()
+      .withId(UUID.randomUUID().toString());
+    request = new SubmittableRequest(submission, saRequest).build()
+      .withId(UUID.randomUUID().toString());
+    submissionBody = JsonCodec.encode(submission);
+    requestBody = JsonCodec.encode(request);
+  }
+
+  @Benchmark
+  public Submission submissionMapFromMapTo() {
+    return JsonObject.mapFrom(submission).mapTo(Submission.class);
+  }
+
+  @Benchmark
+  public Request requestMapFromMapTo() {
+    return JsonObject.mapFrom(request).mapTo(Request.class);
+  }
+
+  @Benchmark
+  public Buffer submissionWriteViaJsonObject() {
+    return JsonObject.mapFrom(submission).toBuffer();
+  }
+
+  @Benchmark
+  public Submission submissionReadViaJsonObject() {
+    return submissionBody.toJsonObject().mapTo(Submission.class);
+  }
+
+  @Benchmark
+  public Buffer submissionEncode() {
+    return JsonCodec.encode(submission);
+  }
+
+  @Benchmark
+  public Submission submissionDecode() {
+    return JsonCodec.decode(submissionBody, Submission.class);
+  }
+
+  @Benchmark
+  public Buffer requestEncode() {
+    return JsonCodec.encode(request);
+  }
+
+  @Benchmark
+  public Request requestDecode() {
+    return JsonCodec.decode(requestBody, Request.class);
+  }
+}
@@ -0,0 +1,44 @@
+package org.folio.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Latency and failures a stand-in adds to its responses, configured per group of routes with the system properties
+ * {@code standin.<group>.latency} and {@code standin.<group>.jitter} in milliseconds, and {@code standin.<group>.errorRate}
+ * from 0 to 1.
+ */
+class Fault {
+
+  private final long latency;
+  private final long jitter;
+  private final double errorRate;
+
+  private Fault(long latency, long jitter, double errorRate) {
+    this.latency = latency;
+    this.jitter = jitter;
+    this.errorRate = errorRate;
+  }
+
+  static Fault forGroup(String group, long defaultLatency) {
+    String prefix = "standin." + group + ".";
+    return new Fault(Long.getLong(prefix + "latency", defaultLatency),
+      Long.getLong(prefix + "jitter", defaultLatency / 2),
+      Double.parseDouble(System.getProperty(prefix + "errorRate", "0")));
+  }
+
+  /**
+   * @return milliseconds to wait before answering, at least 0
+   */
+  long nextDelay() {
+    return jitter > 0 ? Math.max(0, latency + ThreadLocalRandom.current().nextLong(-jitter, jitter + 1)) : latency;
+  }
+
+  boolean nextFails() {
+    return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("latency=%dms jitter=%dms errorRate=%.3f", latency, jitter, errorRate);
+  }
+}
@@ -0,0 +1,96 @@
+package org.folio.loadtest;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records of the storage stand-in, kept per tenant and collection in insertion order. Updates follow the optimistic
+ * locking of the storage module: a record sent with a {@code _version} other than the stored one is rejected.
+ */
+class InMemoryStorage {
+
+  static final String VERSION = "_version";
+
+  private final Map<String, Map<String, JsonObject>> collections = new ConcurrentHashMap<>();
+
+  JsonObject create(String tenant, String collection, JsonObject record) {
+    JsonObject stored = record.copy();
+    if (Objects.isNull(stored.getString("id"))) {
+      stored.put("id", UUID.randomUUID().toString());
+    }
+    stored.put(VERSION, 1);
+    Map<String, JsonObject> records = records(tenant, collection);
+    synchronized (records) {
+      records.put(stored.getString("id"), stored);
+    }
+    return stored.copy();
+  }
+
+  JsonObject get(String tenant, String collection, String id) {
+    Map<String, JsonObject> records = records(tenant, collection);
+    synchronized (records) {
+      JsonObject record = records.get(id);
+      return Objects.isNull(record) ? null : record.copy();
+    }
+  }
+
+  /**
+   * @return the records with the given IDs, or the first {@code limit} records after {@code offset} when there are none
+   */
+  JsonArray find(String tenant, String collection, Set<String> ids, int offset, int limit) {
+    JsonArray result = new JsonArray();
+    Map<String, JsonObject> records = records(tenant, collection);
+    synchronized (records) {
+      if (!ids.isEmpty()) {
+        ids.stream().map(records::get).filter(Objects::nonNull).forEach(record -> result.add(record.copy()));
+        return result;
+      }
+      records.values().stream().skip(offset).limit(limit).forEach(record -> result.add(record.copy()));
+    }
+    return result;
+  }
+
+  int count(String tenant, String collection) {
+    Map<String, JsonObject> records = records(tenant, collection);
+    synchronized (records) {
+      return records.size();
+    }
+  }
+
+  /**
+   * @return 204 when updated, 404 when there is no such record, 409 when the record was sent with an outdated version
+   */
+  int update(String tenant, String collection, String id, JsonObject record) {
+    Map<String, JsonObject> records = records(tenant, collection);
+    synchronized (records) {
+      JsonObject stored = records.get(id);
+      if (Objects.isNull(stored)) {
+        return 404;
+      }
+      Integer version = record.getInteger(VERSION);
+      if (Objects.nonNull(version) && !version.equals(stored.getInteger(VERSION))) {
+        return 409;
+      }
+      records.put(id, record.copy().put("id", id).put(VERSION, stored.getInteger(VERSION) + 1));
+      return 204;
+    }
+  }
+
+  boolean delete(String tenant, String collection, String id) {
+    Map<String, JsonObject> records = records(tenant, collection);
+    synchronized (records) {
+      return Objects.nonNull(records.remove(id));
+    }
+  }
+
+  private Map<String, JsonObject> records(String tenant, String collection) {
+    return collections.computeIfAbsent(tenant + "/" + collection, key -> new LinkedHashMap<>());
+  }
+}
@@ -0,0 +1,79 @@
+package org.folio.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencies and failures of the calls made during a run, per endpoint.
+ */
+class LatencyRecorder {
+
+  private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+  private static final String[] PERCENTILE_LABELS = {"p50", "p90", "p99", "p99.9"};
+
+  private final Map<String, Samples> endpoints = new TreeMap<>();
+
+  /**
+   * @param failed whether the call failed or was answered with an error status
+   */
+  synchronized void record(String endpoint, long nanos, boolean failed) {
+    endpoints.computeIfAbsent(endpoint, e -> new Samples()).add(nanos, failed);
+  }
+
+  synchronized void reset() {
+    endpoints.clear();
+  }
+
+  /**
+   * @param elapsedNanos length of the measured period, to compute throughput
+   * @return one line per endpoint with its throughput, failures and latency percentiles in milliseconds
+   */
+  synchronized String report(long elapsedNanos) {
+    double seconds = elapsedNanos / 1e9;
+    StringBuilder out = new StringBuilder(String.format("%-32s %9s %9s %8s", "endpoint", "calls", "calls/s", "failed"));
+    for (String label : PERCENTILE_LABELS) {
+      out.append(String.format(" %9s", label));
+    }
+    out.append(String.format(" %9s%n", "max"));
+    endpoints.forEach((endpoint, samples) -> {
+      long[] sorted = Arrays.copyOf(samples.latencies, samples.count);
+      Arrays.sort(sorted);
+      out.append(String.format("%-32s %9d %9.1f %8d", endpoint, samples.count, samples.count / seconds, samples.failures));
+      for (double percentile : PERCENTILES) {
+        out.append(String.format(" %9.1f", millis(percentile(sorted, percentile))));
+      }
+      out.append(String.format(" %9.1f%n", millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1])));
+    });
+    return out.toString();
+  }
+
+  private static long percentile(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+  }
+
+  private static double millis(long nanos) {
+    return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  private static class Samples {
+    private long[] latencies = new long[1024];
+    private int count;
+    private int failures;
+
+    void add(long nanos, boolean failed) {
+      if (count == latencies.length) {
+        latencies = Arrays.copyOf(latencies, count * 2);
+      }
+      latencies[count++] = nanos;
+      if (failed) {
+        failures++;
+      }
+    }
+  }
+}
@@ -0,0 +1,220 @@
+package org.folio.loadtest;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpRequest;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static org.folio.config.Constants.OKAPI_URL;
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TENANT;
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TOKEN;
+
+/**
+ * Drives the module with a fixed number of virtual users. Each user makes one call at a time, picking the kind of call at
+ * random by the weights of the mix, until the run's deadline. The IDs of the requests created along the way are
+ * remembered and used by the calls that read, update or send updates for an existing request.
+ */
+class LoadDriver {
+
+  private static final int KNOWN_REQUESTS = 1000;
+
+  private final Vertx vertx;
+  private final WebClient client;
+  private final String moduleUrl;
+  private final String standInUrl;
+  private final String tenant;
+  private final Map<Scenario, Integer> mix;
+  private final int totalWeight;
+  private final List<String> searchTerms;
+  private final long thinkTime;
+  private final LatencyRecorder recorder;
+  private final JsonObject saRequest = template("sa-request.json");
+  private final JsonObject saUpdate = template("sa-update.json");
+  private final List<String> requestIds = new ArrayList<>();
+  private final AtomicLong updates = new AtomicLong();
+
+  LoadDriver(Vertx vertx, LoadTestConfig config, String standInUrl, LatencyRecorder recorder) {
+    this.vertx = vertx;
+    this.client = WebClient.create(vertx, new WebClientOptions()
+      .setMaxPoolSize(config.getConcurrency())
+      .setKeepAlive(true));
+    this.moduleUrl = "http://localhost:" + config.getModulePort();
+    this.standInUrl = standInUrl;
+    this.tenant = config.getTenant();
+    this.mix = new EnumMap<>(config.getMix());
+    this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+    this.searchTerms = config.getSearchTerms();
+    this.thinkTime = config.getThinkTime();
+    this.recorder = recorder;
+  }
+
+  /**
+   * Runs the virtual users until the deadline.
+   *
+   * @param deadline {@link System#nanoTime()} after which no more calls are started
+   * @return completes once every user's last call has completed
+   */
+  CompletableFuture<Void> run(int users, long deadline) {
+    CompletableFuture<?>[] running = new CompletableFuture[users];
+    for (int i = 0; i < users; i++) {
+      CompletableFuture<Void> done = new CompletableFuture<>();
+      next(deadline, done);
+      running[i] = done;
+    }
+    return CompletableFuture.allOf(running);
+  }
+
+  void close() {
+    client.close();
+  }
+
+  private void next(long deadline, CompletableFuture<Void> done) {
+    if (System.nanoTime() >= deadline) {
+      done.complete(null);
+      return;
+    }
+    call(pick()).whenComplete((v, t) -> {
+      if (thinkTime > 0) {
+        vertx.setTimer(thinkTime, id -> next(deadline, done));
+      } else {
+        next(deadline, done);
+      }
+    });
+  }
+
+  private Scenario pick() {
+    int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+    for (Map.Entry<Scenario, Integer> weight : mix.entrySet()) {
+      ticket -= weight.getValue();
+      if (ticket < 0) {
+        return weight.getKey();
+      }
+    }
+    throw new IllegalStateException("Empty mix");
+  }
+
+  private CompletableFuture<Void> call(Scenario scenario) {
+    String requestId = knownRequestId();
+    if (Objects.isNull(requestId) && scenario != Scenario.SEARCH && scenario != Scenario.SA_REQUEST
+        && scenario != Scenario.LIST_SUBMISSIONS) {
+      // Nothing to read or update yet, create something first
+      scenario = Scenario.CREATE_REQUEST;
+    }
+    switch (scenario) {
+      case SEARCH:
+        String term = searchTerms.get(ThreadLocalRandom.current().nextInt(searchTerms.size()));
+        return send(scenario, request(HttpMethod.GET, "/ill-ra/search?offset=0&limit=10&connector="
+          + StandInServer.CONNECTOR_ID + "&query=" + URLEncoder.encode(term, StandardCharsets.UTF_8)), null, null);
+      case SA_REQUEST:
+        return send(scenario, request(HttpMethod.POST, "/ill-ra/sa-request"), saRequest, null);
+      case SA_UPDATE:
+        return send(scenario, request(HttpMethod.POST, "/ill-ra/sa-update"), saUpdate(requestId), null);
+      case CREATE_REQUEST:
+        return send(scenario, request(HttpMethod.POST, "/ill-ra/requests"),
+          new JsonObject().put("submissionId", UUID.randomUUID().toString()),
+          response -> remember(response.bodyAsJsonObject().getString("id")));
+      case GET_REQUEST:
+        return send(scenario, request(HttpMethod.GET, "/ill-ra/requests/" + requestId), null, null);
+      case UPDATE_REQUEST:
+        return send(scenario, request(HttpMethod.PUT, "/ill-ra/requests/" + requestId),
+          new JsonObject().put("id", requestId).put("submissionId", UUID.randomUUID().toString()), null);
+      case LIST_SUBMISSIONS:
+        return send(scenario, request(HttpMethod.GET, "/ill-ra/submissions?offset=0&limit=10"), null, null);
+      default:
+        throw new IllegalArgumentException("Unknown scenario " + scenario);
+    }
+  }
+
+  private HttpRequest<Buffer> request(HttpMethod method, String path) {
+    return client.requestAbs(method, moduleUrl + path)
+      .putHeader(OKAPI_HEADER_TENANT, tenant)
+      .putHeader(OKAPI_HEADER_TOKEN, "loadtest")
+      .putHeader(OKAPI_URL, standInUrl)
+      .putHeader("Accept", APPLICATION_JSON + ", text/plain")
+      .putHeader("Content-Type", APPLICATION_JSON);
+  }
+
+  private CompletableFuture<Void> send(Scenario scenario, HttpRequest<Buffer> request, JsonObject body,
+      Consumer<HttpResponse<Buffer>> onSuccess) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    long started = System.nanoTime();
+    Handler<AsyncResult<HttpResponse<Buffer>>> handler = ar -> {
+      long elapsed = System.nanoTime() - started;
+      boolean failed = ar.failed() || ar.result().statusCode() >= 400;
+      recorder.record(scenario.getEndpoint(), elapsed, failed);
+      if (!failed && Objects.nonNull(onSuccess)) {
+        onSuccess.accept(ar.result());
+      }
+      future.complete(null);
+    };
+    if (Objects.isNull(body)) {
+      request.send(handler);
+    } else {
+      request.sendBuffer(body.toBuffer(), handler);
+    }
+    return future;
+  }
+
+  // Every update is a new message, so that the module does not drop it as a repeat of an earlier one
+  private JsonObject saUpdate(String requestId) {
+    JsonObject message = saUpdate.copy();
+    message.getJsonObject("header")
+      .put("requestingAgencyRequestId", requestId)
+      .put("supplyingAgencyRequestId", "SUP-" + updates.incrementAndGet())
+      .put("timestamp", Instant.now().truncatedTo(ChronoUnit.SECONDS).toString());
+    return message;
+  }
+
+  private void remember(String requestId) {
+    if (Objects.isNull(requestId)) {
+      return;
+    }
+    synchronized (requestIds) {
+      if (requestIds.size() < KNOWN_REQUESTS) {
+        requestIds.add(requestId);
+      } else {
+        requestIds.set(ThreadLocalRandom.current().nextInt(KNOWN_REQUESTS), requestId);
+      }
+    }
+  }
+
+  private String knownRequestId() {
+    synchronized (requestIds) {
+      return requestIds.isEmpty() ? null : requestIds.get(ThreadLocalRandom.current().nextInt(requestIds.size()));
+    }
+  }
+
+  private static JsonObject template(String name) {
+    try (InputStream in = LoadDriver.class.getResourceAsStream("/loadtest/" + name)) {
+      Objects.requireNonNull(in, "Missing load test template " + name);
+      return new JsonObject(Buffer.buffer(in.readAllBytes()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
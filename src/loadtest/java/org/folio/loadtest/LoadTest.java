@@ -0,0 +1,60 @@
+package org.folio.loadtest;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.rest.RestVerticle;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the module under load without any of its dependencies. The module is deployed in this JVM the way the fat jar
+ * deploys it, and every call it makes through Okapi goes to the {@link StandInServer} instead. The stand-ins and the
+ * {@link LoadDriver} run on a Vert.x instance of their own so that they do not compete with the module for its event
+ * loops. Once the run is over the throughput and latency percentiles of each endpoint are printed.
+ * <p>
+ * Configured with system properties, see {@link LoadTestConfig} and {@link Fault}. Module settings such as
+ * {@code sa.request.async} are passed the same way.
+ */
+public class LoadTest {
+
+  private static final Logger logger = LogManager.getLogger(LoadTest.class);
+
+  private LoadTest() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoadTestConfig config = new LoadTestConfig();
+    Vertx moduleVertx = Vertx.vertx();
+    Vertx loadVertx = Vertx.vertx();
+    StandInServer standIns = new StandInServer(loadVertx);
+    LatencyRecorder recorder = new LatencyRecorder();
+    LoadDriver driver = null;
+    try {
+      int standInPort = standIns.start(0).toCompletionStage().toCompletableFuture().get();
+      moduleVertx.deployVerticle(RestVerticle.class.getName(), new DeploymentOptions()
+        .setConfig(new JsonObject().put("http.port", config.getModulePort())))
+        .toCompletionStage().toCompletableFuture().get();
+      logger.info("Module listening on {}, stand-ins on {}, running {}", config.getModulePort(), standInPort, config);
+
+      driver = new LoadDriver(loadVertx, config, "http://localhost:" + standInPort, recorder);
+      long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.getWarmup());
+      driver.run(config.getConcurrency(), warmupEnd).get();
+      recorder.reset();
+
+      long started = System.nanoTime();
+      driver.run(config.getConcurrency(), started + TimeUnit.SECONDS.toNanos(config.getDuration())).get();
+      System.out.print(recorder.report(System.nanoTime() - started));
+    } finally {
+      if (Objects.nonNull(driver)) {
+        driver.close();
+      }
+      standIns.stop();
+      moduleVertx.close();
+      loadVertx.close();
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package org.folio.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Settings of a run, read from system properties:
+ * <ul>
+ *   <li>{@code loadtest.duration} and {@code loadtest.warmup}: seconds measured, and seconds run before that whose calls
+ *   are not reported</li>
+ *   <li>{@code loadtest.concurrency}: number of virtual users</li>
+ *   <li>{@code loadtest.thinkTime}: milliseconds a user waits between calls</li>
+ *   <li>{@code loadtest.mix}: weights of the kinds of calls, e.g. {@code search=30,saRequest=20,saUpdate=20}, see
+ *   {@link Scenario} for the names; kinds left out are not called</li>
+ *   <li>{@code loadtest.searchTerms}: comma separated terms searched for</li>
+ *   <li>{@code loadtest.tenant} and {@code loadtest.modulePort}</li>
+ * </ul>
+ */
+class LoadTestConfig {
+
+  private static final String DEFAULT_MIX =
+    "search=25,saRequest=20,saUpdate=20,createRequest=10,getRequest=15,updateRequest=5,listSubmissions=5";
+
+  private final long duration = Long.getLong("loadtest.duration", 60);
+  private final long warmup = Long.getLong("loadtest.warmup", 10);
+  private final int concurrency = Integer.getInteger("loadtest.concurrency", 20);
+  private final long thinkTime = Long.getLong("loadtest.thinkTime", 0);
+  private final String tenant = System.getProperty("loadtest.tenant", "loadtest");
+  private final int modulePort = Integer.getInteger("loadtest.modulePort", 8081);
+  private final List<String> searchTerms = split(System.getProperty("loadtest.searchTerms",
+    "rose,eco,library,history,science,medicine,law,music"));
+  private final Map<Scenario, Integer> mix = parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX));
+
+  long getDuration() {
+    return duration;
+  }
+
+  long getWarmup() {
+    return warmup;
+  }
+
+  int getConcurrency() {
+    return concurrency;
+  }
+
+  long getThinkTime() {
+    return thinkTime;
+  }
+
+  String getTenant() {
+    return tenant;
+  }
+
+  int getModulePort() {
+    return modulePort;
+  }
+
+  List<String> getSearchTerms() {
+    return searchTerms;
+  }
+
+  Map<Scenario, Integer> getMix() {
+    return mix;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("duration=%ds warmup=%ds concurrency=%d thinkTime=%dms mix=%s",
+      duration, warmup, concurrency, thinkTime, mix);
+  }
+
+  private static Map<Scenario, Integer> parseMix(String config) {
+    Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+    for (String entry : split(config)) {
+      String[] pair = entry.split("=", 2);
+      Scenario scenario = Arrays.stream(Scenario.values())
+        .filter(s -> s.getKey().equals(pair[0].trim()))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Unknown kind of call in loadtest.mix: " + pair[0]));
+      int weight = pair.length > 1 ? Integer.parseInt(pair[1].trim()) : 1;
+      if (weight > 0) {
+        weights.put(scenario, weight);
+      }
+    }
+    if (weights.isEmpty()) {
+      throw new IllegalArgumentException("loadtest.mix does not contain any calls");
+    }
+    return weights;
+  }
+
+  private static List<String> split(String value) {
+    return Arrays.stream(value.split(","))
+      .map(String::trim)
+      .filter(part -> !part.isEmpty())
+      .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,31 @@
+package org.folio.loadtest;
+
+/**
+ * The kinds of calls a run mixes, each with the name its weight is configured under in {@code loadtest.mix} and the
+ * endpoint it is reported as.
+ */
+enum Scenario {
+  SEARCH("search", "GET /ill-ra/search"),
+  SA_REQUEST("saRequest", "POST /ill-ra/sa-request"),
+  SA_UPDATE("saUpdate", "POST /ill-ra/sa-update"),
+  CREATE_REQUEST("createRequest", "POST /ill-ra/requests"),
+  GET_REQUEST("getRequest", "GET /ill-ra/requests/{id}"),
+  UPDATE_REQUEST("updateRequest", "PUT /ill-ra/requests/{id}"),
+  LIST_SUBMISSIONS("listSubmissions", "GET /ill-ra/submissions");
+
+  private final String key;
+  private final String endpoint;
+
+  Scenario(String key, String endpoint) {
+    this.key = key;
+    this.endpoint = endpoint;
+  }
+
+  String getKey() {
+    return key;
+  }
+
+  String getEndpoint() {
+    return endpoint;
+  }
+}
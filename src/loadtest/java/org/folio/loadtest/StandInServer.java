@@ -0,0 +1,200 @@
+package org.folio.loadtest;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.BodyHandler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TENANT;
+
+/**
+ * Stands in for everything the module calls through Okapi: the storage module, the connector search and action
+ * interfaces, and the Okapi proxy that lists the connectors of a tenant. The module is pointed at it with the
+ * {@code x-okapi-url} header. Each group of routes answers with its own {@link Fault}.
+ * <p>
+ * Storage offers {@code POST /ill-ra-storage/messages/batch} only when {@code standin.storage.messageBatches} is true,
+ * for runs of the module with {@code sa.message.batch.size} above 1. Without it the module writes messages one by one.
+ */
+class StandInServer {
+
+  static final String CONNECTOR_ID = "mod-ill-connector-loadtest-1.0.0";
+
+  private static final Logger logger = LogManager.getLogger(StandInServer.class);
+  private static final Pattern UUID = Pattern.compile(
+    "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+  private static final Pattern DASH = Pattern.compile("-([a-z])");
+  private static final String TOTAL_RECORDS = "totalRecords";
+  private static final int SEARCH_TOTAL_RECORDS = 100;
+
+  private final Vertx vertx;
+  private final InMemoryStorage storage = new InMemoryStorage();
+  private final Fault storageFault = Fault.forGroup("storage", 5);
+  private final Fault connectorFault = Fault.forGroup("connector", 100);
+  private final Fault proxyFault = Fault.forGroup("proxy", 5);
+  private final boolean messageBatches = Boolean.getBoolean("standin.storage.messageBatches");
+  private HttpServer server;
+
+  StandInServer(Vertx vertx) {
+    this.vertx = vertx;
+  }
+
+  /**
+   * @return port the stand-ins listen on
+   */
+  Future<Integer> start(int port) {
+    logger.info("Stand-ins: storage {}, connector {}, proxy {}", storageFault, connectorFault, proxyFault);
+    Router router = Router.router(vertx);
+    router.route().handler(BodyHandler.create());
+    router.get("/_/proxy/tenants/:tenant/modules").handler(ctx -> respond(ctx, proxyFault,
+      () -> json(ctx, 200, new JsonArray().add(new JsonObject().put("id", CONNECTOR_ID)))));
+    router.get("/ill-connector/search").handler(ctx -> respond(ctx, connectorFault,
+      () -> json(ctx, 200, new JsonObject().put(TOTAL_RECORDS, SEARCH_TOTAL_RECORDS))));
+    router.post("/action").handler(ctx -> respond(ctx, connectorFault, () -> json(ctx, 200, new JsonObject())));
+    router.get("/ill-ra-storage/requests/:id/messages").handler(ctx -> respond(ctx, storageFault,
+      () -> json(ctx, 200, new JsonObject().put(TOTAL_RECORDS, 0))));
+    router.get("/ill-ra-storage/submissions/:id/requests").handler(ctx -> respond(ctx, storageFault,
+      () -> submissionRequests(ctx)));
+    if (messageBatches) {
+      router.post("/ill-ra-storage/messages/batch").handler(ctx -> respond(ctx, storageFault, () -> createMessages(ctx)));
+    }
+    router.get("/ill-ra-storage/:collection").handler(ctx -> respond(ctx, storageFault, () -> find(ctx)));
+    router.post("/ill-ra-storage/:collection").handler(ctx -> respond(ctx, storageFault, () -> create(ctx)));
+    router.get("/ill-ra-storage/:collection/:id").handler(ctx -> respond(ctx, storageFault, () -> get(ctx)));
+    router.put("/ill-ra-storage/:collection/:id").handler(ctx -> respond(ctx, storageFault, () -> update(ctx)));
+    router.delete("/ill-ra-storage/:collection/:id").handler(ctx -> respond(ctx, storageFault, () -> delete(ctx)));
+    return vertx.createHttpServer()
+      .requestHandler(router)
+      .listen(port)
+      .map(listening -> {
+        server = listening;
+        return listening.actualPort();
+      });
+  }
+
+  Future<Void> stop() {
+    return Objects.isNull(server) ? Future.succeededFuture() : server.close();
+  }
+
+  private void respond(RoutingContext ctx, Fault fault, Runnable answer) {
+    long delay = fault.nextDelay();
+    Runnable faulty = () -> {
+      if (fault.nextFails()) {
+        ctx.response().setStatusCode(500).end("Injected failure");
+      } else {
+        answer.run();
+      }
+    };
+    if (delay > 0) {
+      vertx.setTimer(delay, id -> faulty.run());
+    } else {
+      faulty.run();
+    }
+  }
+
+  private void find(RoutingContext ctx) {
+    String collection = ctx.pathParam("collection");
+    String tenant = tenant(ctx);
+    int offset = intParam(ctx, "offset", 0);
+    int limit = intParam(ctx, "limit", 10);
+    JsonArray records = storage.find(tenant, collection, idsOf(ctx.request().getParam("query")), offset, limit);
+    json(ctx, 200, new JsonObject()
+      .put(collectionField(collection), records)
+      .put(TOTAL_RECORDS, storage.count(tenant, collection)));
+  }
+
+  private void submissionRequests(RoutingContext ctx) {
+    String submissionId = ctx.pathParam("id");
+    JsonArray requests = new JsonArray();
+    storage.find(tenant(ctx), "requests", Set.of(), 0, Integer.MAX_VALUE).stream()
+      .map(JsonObject.class::cast)
+      .filter(request -> submissionId.equals(request.getString("submissionId")))
+      .forEach(requests::add);
+    json(ctx, 200, new JsonObject().put("requests", requests).put(TOTAL_RECORDS, requests.size()));
+  }
+
+  private void create(RoutingContext ctx) {
+    json(ctx, 201, storage.create(tenant(ctx), ctx.pathParam("collection"), ctx.getBodyAsJson()));
+  }
+
+  private void createMessages(RoutingContext ctx) {
+    JsonArray created = new JsonArray();
+    ctx.getBodyAsJson().getJsonArray("messages", new JsonArray()).stream()
+      .map(JsonObject.class::cast)
+      .forEach(message -> created.add(storage.create(tenant(ctx), "messages", message)));
+    json(ctx, 201, new JsonObject().put("messages", created));
+  }
+
+  private void get(RoutingContext ctx) {
+    JsonObject record = storage.get(tenant(ctx), ctx.pathParam("collection"), ctx.pathParam("id"));
+    if (Objects.isNull(record)) {
+      ctx.response().setStatusCode(404).end("Not found");
+    } else {
+      json(ctx, 200, record);
+    }
+  }
+
+  private void update(RoutingContext ctx) {
+    int status = storage.update(tenant(ctx), ctx.pathParam("collection"), ctx.pathParam("id"), ctx.getBodyAsJson());
+    ctx.response().setStatusCode(status).end();
+  }
+
+  private void delete(RoutingContext ctx) {
+    boolean deleted = storage.delete(tenant(ctx), ctx.pathParam("collection"), ctx.pathParam("id"));
+    ctx.response().setStatusCode(deleted ? 204 : 404).end();
+  }
+
+  private static void json(RoutingContext ctx, int status, Object body) {
+    ctx.response()
+      .setStatusCode(status)
+      .putHeader("Content-Type", APPLICATION_JSON)
+      .end(body instanceof JsonArray ? ((JsonArray) body).toBuffer() : ((JsonObject) body).toBuffer());
+  }
+
+  private static String tenant(RoutingContext ctx) {
+    return Objects.toString(ctx.request().getHeader(OKAPI_HEADER_TENANT), "");
+  }
+
+  // Collections are returned under the name of the collection in camel case, e.g. submissionStatuses
+  private static String collectionField(String collection) {
+    Matcher dash = DASH.matcher(collection);
+    StringBuilder field = new StringBuilder();
+    while (dash.find()) {
+      dash.appendReplacement(field, dash.group(1).toUpperCase());
+    }
+    return dash.appendTail(field).toString();
+  }
+
+  // Lookups by ID are sent as CQL queries such as id==(a or b), any other query returns the first page
+  private static Set<String> idsOf(String query) {
+    Set<String> ids = new LinkedHashSet<>();
+    if (Objects.nonNull(query) && query.startsWith("id==")) {
+      Matcher uuid = UUID.matcher(query);
+      while (uuid.find()) {
+        ids.add(uuid.group());
+      }
+    }
+    return ids;
+  }
+
+  private static int intParam(RoutingContext ctx, String name, int defaultValue) {
+    String value = ctx.request().getParam(name);
+    try {
+      return Objects.isNull(value) ? defaultValue : Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+}
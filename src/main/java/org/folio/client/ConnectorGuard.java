@@ -0,0 +1,201 @@
+package org.folio.client;
+
+import io.vertx.core.json.JsonObject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.exception.ErrorCodes;
+import org.folio.exception.HttpException;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Keeps one failing or hung connector from holding up the calls to every other one. Each connector gets a circuit breaker
+ * and a bulkhead:
+ * <ul>
+ *   <li>after {@code failureThreshold} failed calls in a row the circuit opens and calls to the connector fail straight
+ *   away with a 503 for {@code openDuration} milliseconds. A single probe call is then let through, the circuit closes if
+ *   it succeeds and opens again if it fails</li>
+ *   <li>at most {@code maxConcurrentCalls} calls to the connector are in progress at a time, further calls fail straight
+ *   away with a 503 instead of queueing</li>
+ * </ul>
+ * A call fails when it completes exceptionally with anything but a 4xx {@link HttpException}, or when its result is
+ * classified as failed, e.g. a 5xx response. Only calls let through since the circuit last changed state count towards
+ * it, so a slow call from before the circuit opened cannot close it again.
+ */
+public class ConnectorGuard {
+
+  public static final String CIRCUIT_STATE = "ill_ra_connector_circuit_open";
+  public static final String IN_FLIGHT = "ill_ra_connector_calls_in_flight";
+  public static final String REJECTED = "ill_ra_connector_calls_rejected_total";
+
+  private static final Logger logger = LogManager.getLogger(ConnectorGuard.class);
+
+  private final int failureThreshold;
+  private final long openDuration;
+  private final int maxConcurrentCalls;
+  private final Map<String, Guard> guards = new ConcurrentHashMap<>();
+
+  public ConnectorGuard(int failureThreshold, long openDuration, int maxConcurrentCalls) {
+    this.failureThreshold = failureThreshold;
+    this.openDuration = openDuration;
+    this.maxConcurrentCalls = maxConcurrentCalls;
+  }
+
+  public <T> CompletableFuture<T> call(String connector, Supplier<CompletableFuture<T>> call) {
+    return call(connector, call, result -> false);
+  }
+
+  /**
+   * Makes the call unless the connector's circuit is open or its bulkhead is full.
+   *
+   * @param failed tells whether a result counts as a failure of the connector
+   */
+  public <T> CompletableFuture<T> call(String connector, Supplier<CompletableFuture<T>> call, Predicate<T> failed) {
+    Guard guard = guards.computeIfAbsent(connector, Guard::new);
+    long epoch;
+    try {
+      epoch = guard.acquire();
+    } catch (HttpException rejection) {
+      return CompletableFuture.failedFuture(rejection);
+    }
+    CompletableFuture<T> future;
+    try {
+      future = call.get();
+    } catch (RuntimeException e) {
+      guard.release(epoch, true);
+      throw e;
+    }
+    return future.whenComplete((result, t) ->
+      guard.release(epoch, Objects.nonNull(t) ? isFailure(t) : failed.test(result)));
+  }
+
+  /**
+   * Appends the circuit state, calls in progress and rejected calls per connector in the Prometheus text format.
+   */
+  public void scrape(StringBuilder out) {
+    out.append("# TYPE ").append(CIRCUIT_STATE).append(" gauge\n");
+    guards.values().forEach(guard -> guard.scrape(CIRCUIT_STATE, guard.isOpen() ? 1 : 0, out));
+    out.append("# TYPE ").append(IN_FLIGHT).append(" gauge\n");
+    guards.values().forEach(guard -> guard.scrape(IN_FLIGHT, guard.getInFlight(), out));
+    out.append("# TYPE ").append(REJECTED).append(" counter\n");
+    guards.values().forEach(guard -> guard.scrape(REJECTED, guard.rejected.sum(), out));
+  }
+
+  /**
+   * @return state of each connector's circuit and bulkhead
+   */
+  public JsonObject getStats() {
+    JsonObject stats = new JsonObject();
+    guards.forEach((connector, guard) -> stats.put(connector, guard.getStats()));
+    return stats;
+  }
+
+  // Client errors say nothing about the health of the connector
+  private static boolean isFailure(Throwable t) {
+    Throwable cause = t instanceof CompletionException && Objects.nonNull(t.getCause()) ? t.getCause() : t;
+    return !(cause instanceof HttpException && ((HttpException) cause).getCode() < 500);
+  }
+
+  private enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private class Guard {
+    private final String connector;
+    private final LongAdder rejected = new LongAdder();
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private int inFlight;
+    // Changes with every state change, calls remember the one they were let through in
+    private long epoch;
+
+    Guard(String connector) {
+      this.connector = connector;
+    }
+
+    /**
+     * @return the epoch the call is let through in
+     * @throws HttpException with status 503 when the call is rejected
+     */
+    synchronized long acquire() {
+      if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openDuration) {
+        moveTo(State.HALF_OPEN);
+        logger.info("Circuit of connector {} half-open, probing", connector);
+      } else if (state != State.CLOSED) {
+        // Open, or half-open with the probe still in progress
+        rejected.increment();
+        throw new HttpException(503, ErrorCodes.CONNECTOR_UNAVAILABLE.toError()
+          .withMessage(String.format("Connector %s is failing, calls to it are suspended", connector)));
+      }
+      if (inFlight >= maxConcurrentCalls) {
+        if (state == State.HALF_OPEN) {
+          // No room for the probe, try again after another open period
+          moveTo(State.OPEN);
+        }
+        rejected.increment();
+        throw new HttpException(503, ErrorCodes.CONNECTOR_BUSY.toError()
+          .withMessage(String.format("Connector %s already has %d calls in progress", connector, inFlight)));
+      }
+      inFlight++;
+      return epoch;
+    }
+
+    synchronized void release(long callEpoch, boolean failed) {
+      inFlight--;
+      if (callEpoch != epoch) {
+        // Let through before the last state change, its outcome says nothing about the current state
+        return;
+      }
+      if (!failed) {
+        if (state != State.CLOSED) {
+          logger.info("Circuit of connector {} closed", connector);
+          moveTo(State.CLOSED);
+        }
+        consecutiveFailures = 0;
+        return;
+      }
+      consecutiveFailures++;
+      if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+        logger.warn("Circuit of connector {} opened after {} failed calls in a row", connector, consecutiveFailures);
+        moveTo(State.OPEN);
+      }
+    }
+
+    private void moveTo(State next) {
+      state = next;
+      epoch++;
+      if (next == State.OPEN) {
+        openedAt = System.currentTimeMillis();
+      }
+    }
+
+    synchronized boolean isOpen() {
+      return state != State.CLOSED;
+    }
+
+    synchronized int getInFlight() {
+      return inFlight;
+    }
+
+    synchronized JsonObject getStats() {
+      return new JsonObject()
+        .put("state", state.name())
+        .put("consecutiveFailures", consecutiveFailures)
+        .put("inFlight", inFlight)
+        .put("rejected", rejected.sum());
+    }
+
+    void scrape(String metric, long value, StringBuilder out) {
+      out.append(metric).append("{connector=\"").append(connector.replace("\"", "\\\"")).append("\"} ")
+        .append(value).append('\n');
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package org.folio.client;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.ext.web.client.WebClientOptions;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.folio.config.Constants.STORAGE_CLIENT_CONNECT_TIMEOUT;
+import static org.folio.config.Constants.STORAGE_CLIENT_IDLE_TIMEOUT;
+import static org.folio.config.Constants.STORAGE_CLIENT_KEEP_ALIVE_TIMEOUT;
+import static org.folio.config.Constants.STORAGE_CLIENT_MAX_POOL_SIZE;
+import static org.folio.config.Constants.STORAGE_CLIENT_PIPELINING;
+import static org.folio.config.Constants.STORAGE_CLIENT_PIPELINING_LIMIT;
+
+/**
+ * Registry of {@link PooledHttpClient}s, one per Okapi URL, held in the local data of each Vert.x context so that every
+ * verticle instance keeps its own connection pool. The pool settings can be tuned with the following system properties:
+ * <ul>
+ *   <li>{@code storage.client.maxPoolSize} - maximum number of connections per Okapi URL</li>
+ *   <li>{@code storage.client.pipelining} - whether HTTP/1.1 pipelining is used</li>
+ *   <li>{@code storage.client.pipeliningLimit} - maximum number of pipelined requests per connection</li>
+ *   <li>{@code storage.client.keepAliveTimeout} - seconds an unused connection is kept alive</li>
+ *   <li>{@code storage.client.connectTimeout} - connect timeout in milliseconds</li>
+ *   <li>{@code storage.client.idleTimeout} - seconds after which an idle connection is closed</li>
+ * </ul>
+ */
+public class HttpClientPool {
+
+  private static final Logger logger = LogManager.getLogger(HttpClientPool.class);
+  private static final String CONTEXT_KEY = HttpClientPool.class.getName();
+
+  // Every pool created, so that all of them are closed when the module shuts down
+  private static final Set<HttpClientPool> pools = ConcurrentHashMap.newKeySet();
+  // The module's Vert.x instance, set once it is initialized
+  private static volatile Vertx owner;
+  // Used when a client is requested outside of a Vert.x context, e.g. from a CompletableFuture callback
+  private static HttpClientPool fallbackPool;
+
+  private final Vertx vertx;
+  private final WebClientOptions options;
+  private final Map<String, PooledHttpClient> clients = new ConcurrentHashMap<>();
+
+  HttpClientPool(Vertx vertx, WebClientOptions options) {
+    this.vertx = vertx;
+    this.options = options;
+  }
+
+  /**
+   * Sets the Vert.x instance of the module, which runs the clients requested outside of a Vert.x context.
+   */
+  public static void init(Vertx vertx) {
+    owner = vertx;
+  }
+
+  /**
+   * Returns the shared client for the given Okapi URL, creating the pool for the current Vert.x context if needed.
+   *
+   * @param okapiUrl Okapi URL the client sends its requests to
+   * @return pooled client that must not be closed by the caller
+   */
+  public static PooledHttpClient getClient(String okapiUrl) {
+    HttpClientPool pool = getPool();
+    return pool.clients.computeIfAbsent(okapiUrl, url -> {
+      logger.debug("Creating pooled HTTP client for {}", url);
+      return new PooledHttpClient(pool.vertx, url, pool.options);
+    });
+  }
+
+  /**
+   * Closes every client of every pool, when the module shuts down.
+   */
+  public static void closeAll() {
+    pools.forEach(pool -> {
+      pool.clients.values().forEach(PooledHttpClient::close);
+      pool.clients.clear();
+    });
+  }
+
+  private static HttpClientPool getPool() {
+    Context context = Vertx.currentContext();
+    if (Objects.isNull(context)) {
+      return getFallbackPool();
+    }
+    HttpClientPool pool = context.get(CONTEXT_KEY);
+    if (Objects.isNull(pool)) {
+      pool = new HttpClientPool(context.owner(), buildOptions());
+      context.put(CONTEXT_KEY, pool);
+      pools.add(pool);
+    }
+    return pool;
+  }
+
+  // Callbacks of java.net.http calls run on the outbound client's threads, their storage calls use the module's Vert.x
+  // instance rather than one of their own
+  private static synchronized HttpClientPool getFallbackPool() {
+    if (Objects.isNull(fallbackPool)) {
+      if (Objects.isNull(owner)) {
+        throw new IllegalStateException("HttpClientPool used outside of a Vert.x context before it was initialized");
+      }
+      fallbackPool = new HttpClientPool(owner, buildOptions());
+      pools.add(fallbackPool);
+    }
+    return fallbackPool;
+  }
+
+  static WebClientOptions buildOptions() {
+    WebClientOptions options = new WebClientOptions();
+    options.setKeepAlive(true);
+    options.setKeepAliveTimeout(Integer.getInteger("storage.client.keepAliveTimeout", STORAGE_CLIENT_KEEP_ALIVE_TIMEOUT));
+    options.setMaxPoolSize(Integer.getInteger("storage.client.maxPoolSize", STORAGE_CLIENT_MAX_POOL_SIZE));
+    options.setPipelining(Boolean.parseBoolean(System.getProperty("storage.client.pipelining",
+      String.valueOf(STORAGE_CLIENT_PIPELINING))));
+    options.setPipeliningLimit(Integer.getInteger("storage.client.pipeliningLimit", STORAGE_CLIENT_PIPELINING_LIMIT));
+    options.setConnectTimeout(Integer.getInteger("storage.client.connectTimeout", STORAGE_CLIENT_CONNECT_TIMEOUT));
+    options.setIdleTimeout(Integer.getInteger("storage.client.idleTimeout", STORAGE_CLIENT_IDLE_TIMEOUT));
+    return options;
+  }
+}
@@ -0,0 +1,111 @@
+package org.folio.client;
+
+import io.vertx.core.json.JsonObject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.tracing.Span;
+import org.folio.tracing.Tracer;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TENANT;
+import static org.folio.tracing.Tracer.TRACEPARENT;
+
+/**
+ * Module-wide {@link HttpClient} used for calls that leave the storage layer, i.e. connector actions and Okapi proxy
+ * lookups. A single instance is created with the Spring context in {@link org.folio.rest.impl.InitAPIs} so that its
+ * selector thread and connection pool are shared by every request.
+ */
+public class OutboundHttpClient implements AutoCloseable {
+
+  private static final Logger logger = LogManager.getLogger(OutboundHttpClient.class);
+  private static final String MODULE_ID = "x-okapi-module-id";
+
+  private final HttpClient client;
+  private final ThreadPoolExecutor executor;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+
+  public OutboundHttpClient(int threads, Duration connectTimeout, HttpClient.Version version) {
+    this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+      daemonThreadFactory());
+    this.executor.allowCoreThreadTimeOut(true);
+    this.client = HttpClient.newBuilder()
+      .executor(executor)
+      .connectTimeout(connectTimeout)
+      .version(version)
+      .build();
+  }
+
+  /**
+   * Sends the request built by the given builder. Takes the builder rather than the request so that a call made for a
+   * traced request can be sent with its own span in the {@code traceparent} header.
+   */
+  public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest.Builder requestBuilder,
+      HttpResponse.BodyHandler<T> bodyHandler) {
+    HttpRequest request = requestBuilder.build();
+    Span span = Tracer.getInstance().startSpan(
+      request.method() + " " + OutboundMetrics.template(request.uri().getPath()),
+      request.headers().firstValue(TRACEPARENT).orElse(null));
+    if (Objects.nonNull(span)) {
+      request = requestBuilder.setHeader(TRACEPARENT, span.toTraceparent()).build();
+    }
+    inFlight.incrementAndGet();
+    requests.increment();
+    OutboundMetrics.Call call = OutboundMetrics.getInstance().start(request.method(), request.uri().getPath(),
+      request.headers().firstValue(OKAPI_HEADER_TENANT).orElse(null),
+      request.headers().firstValue(MODULE_ID).orElse(null));
+    return client.sendAsync(request, bodyHandler)
+      .whenComplete((response, t) -> {
+        inFlight.decrementAndGet();
+        if (Objects.nonNull(t)) {
+          failures.increment();
+          call.end(null);
+          PooledHttpClient.endSpan(span, null, t);
+        } else {
+          call.end(response.statusCode());
+          PooledHttpClient.endSpan(span, response.statusCode(), null);
+        }
+      });
+  }
+
+  /**
+   * @return snapshot of request counters and executor usage
+   */
+  public JsonObject getStats() {
+    return new JsonObject()
+      .put("inFlight", inFlight.get())
+      .put("requests", requests.sum())
+      .put("failures", failures.sum())
+      .put("activeThreads", executor.getActiveCount())
+      .put("poolSize", executor.getPoolSize())
+      .put("queuedTasks", executor.getQueue().size());
+  }
+
+  @Override
+  public void close() {
+    logger.info("Shutting down outbound HTTP client: {}", getStats().encode());
+    executor.shutdown();
+  }
+
+  private static ThreadFactory daemonThreadFactory() {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, "ill-ra-outbound-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
@@ -0,0 +1,138 @@
+package org.folio.client;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Latency, outcome and concurrency of every call the module makes, to storage through {@link PooledHttpClient} and to
+ * connectors and Okapi through {@link OutboundHttpClient}. Calls are grouped by method, endpoint with ids replaced by
+ * placeholders, tenant and connector, and each group keeps a latency histogram per status code. Written out in the
+ * Prometheus text format by {@link #scrape(StringBuilder)}.
+ */
+public class OutboundMetrics {
+
+  public static final String REQUESTS = "ill_ra_outbound_requests_seconds";
+  public static final String IN_FLIGHT = "ill_ra_outbound_requests_in_flight";
+
+  // Upper bounds of the histogram buckets, in milliseconds
+  private static final long[] BUCKETS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+  private static final Pattern UUID = Pattern.compile(
+    "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+  private static final Pattern NUMBER = Pattern.compile("/\\d+(?=/|$)");
+  private static final String FAILED = "failed";
+
+  private static final OutboundMetrics instance = new OutboundMetrics();
+
+  private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+  private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+  private OutboundMetrics() {
+  }
+
+  public static OutboundMetrics getInstance() {
+    return instance;
+  }
+
+  /**
+   * Marks the start of a call.
+   *
+   * @param path      path of the call, with or without a query string
+   * @param tenant    tenant the call is made for, may be null
+   * @param connector connector module the call goes to, may be null
+   * @return the call, to be passed its outcome once it completes
+   */
+  public Call start(String method, String path, String tenant, String connector) {
+    String labels = String.format("method=\"%s\",endpoint=\"%s\",tenant=\"%s\",connector=\"%s\"",
+      method, template(path), label(tenant), label(connector));
+    AtomicInteger calls = inFlight.computeIfAbsent(labels, l -> new AtomicInteger());
+    calls.incrementAndGet();
+    return new Call(labels, calls, System.nanoTime());
+  }
+
+  /**
+   * Appends all histograms and in-flight gauges in the Prometheus text format.
+   */
+  public void scrape(StringBuilder out) {
+    out.append("# TYPE ").append(REQUESTS).append(" histogram\n");
+    histograms.forEach((labels, histogram) -> histogram.scrape(labels, out));
+    out.append("# TYPE ").append(IN_FLIGHT).append(" gauge\n");
+    inFlight.forEach((labels, calls) ->
+      out.append(IN_FLIGHT).append('{').append(labels).append("} ").append(calls.get()).append('\n'));
+  }
+
+  // Ids would make every record a series of its own
+  static String template(String path) {
+    String withoutQuery = StringUtils.substringBefore(path, "?");
+    return NUMBER.matcher(UUID.matcher(withoutQuery).replaceAll("{id}")).replaceAll("/{id}");
+  }
+
+  private static String label(String value) {
+    return StringUtils.isEmpty(value) ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"");
+  }
+
+  public class Call {
+    private final String labels;
+    private final AtomicInteger calls;
+    private final long startedAt;
+
+    private Call(String labels, AtomicInteger calls, long startedAt) {
+      this.labels = labels;
+      this.calls = calls;
+      this.startedAt = startedAt;
+    }
+
+    /**
+     * @param statusCode status code of the response, null when no response was received
+     */
+    public void end(Integer statusCode) {
+      calls.decrementAndGet();
+      String status = Objects.isNull(statusCode) ? FAILED : String.valueOf(statusCode);
+      histograms.computeIfAbsent(labels + ",status=\"" + status + "\"", l -> new Histogram())
+        .record(System.nanoTime() - startedAt);
+    }
+  }
+
+  private static class Histogram {
+    private final LongAdder[] buckets = new LongAdder[BUCKETS.length];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    Histogram() {
+      for (int i = 0; i < buckets.length; i++) {
+        buckets[i] = new LongAdder();
+      }
+    }
+
+    void record(long nanos) {
+      long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+      for (int i = 0; i < BUCKETS.length; i++) {
+        if (millis <= BUCKETS[i]) {
+          buckets[i].increment();
+          break;
+        }
+      }
+      count.increment();
+      sumNanos.add(nanos);
+    }
+
+    void scrape(String labels, StringBuilder out) {
+      long cumulative = 0;
+      for (int i = 0; i < BUCKETS.length; i++) {
+        cumulative += buckets[i].sum();
+        out.append(REQUESTS).append("_bucket{").append(labels).append(",le=\"")
+          .append(BUCKETS[i] / 1000.0).append("\"} ").append(cumulative).append('\n');
+      }
+      long total = Math.max(count.sum(), cumulative);
+      out.append(REQUESTS).append("_bucket{").append(labels).append(",le=\"+Inf\"} ").append(total).append('\n');
+      out.append(REQUESTS).append("_count{").append(labels).append("} ").append(total).append('\n');
+      out.append(REQUESTS).append("_sum{").append(labels).append("} ").append(sumNanos.sum() / 1e9).append('\n');
+    }
+  }
+}
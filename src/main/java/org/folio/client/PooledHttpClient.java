@@ -0,0 +1,112 @@
+package org.folio.client;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.web.client.HttpRequest;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import org.folio.tracing.Span;
+import org.folio.tracing.Tracer;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TENANT;
+import static org.folio.tracing.Tracer.TRACEPARENT;
+
+/**
+ * A keep-alive HTTP client bound to a single Okapi URL. Instances are obtained from {@link HttpClientPool} and are shared
+ * by every storage call made on the same Vert.x context, so they must not be closed by callers.
+ */
+public class PooledHttpClient {
+
+  private static final String ACCEPT = "Accept";
+  private static final String CONTENT_TYPE = "Content-Type";
+  private static final String MODULE_ID = "x-okapi-module-id";
+  // Calls under this path go to the connector named by the module ID header
+  private static final String CONNECTOR_PATH = "/ill-connector/";
+  // The Accept header is required for calls to storage, some of which do not produce a response body in the happy flow
+  private static final String DEFAULT_ACCEPT = APPLICATION_JSON + ", " + TEXT_PLAIN;
+
+  private final WebClient webClient;
+  private final String okapiUrl;
+
+  PooledHttpClient(Vertx vertx, String okapiUrl, WebClientOptions options) {
+    this.webClient = WebClient.create(vertx, options);
+    this.okapiUrl = okapiUrl;
+  }
+
+  public String getOkapiUrl() {
+    return okapiUrl;
+  }
+
+  public CompletableFuture<HttpResponse<Buffer>> request(HttpMethod method, String endpoint, Map<String, String> okapiHeaders) {
+    return request(method, null, endpoint, okapiHeaders);
+  }
+
+  public CompletableFuture<HttpResponse<Buffer>> request(HttpMethod method, Buffer body, String endpoint,
+      Map<String, String> okapiHeaders) {
+    return request(method, body, endpoint, okapiHeaders, 0);
+  }
+
+  /**
+   * @param timeout milliseconds after which the request is cancelled and fails with a timeout if no response has arrived,
+   *                0 for no limit
+   */
+  public CompletableFuture<HttpResponse<Buffer>> request(HttpMethod method, Buffer body, String endpoint,
+      Map<String, String> okapiHeaders, long timeout) {
+    CompletableFuture<HttpResponse<Buffer>> future = new CompletableFuture<>();
+    HttpRequest<Buffer> request = webClient.requestAbs(method, okapiUrl + endpoint);
+    if (timeout > 0) {
+      request.timeout(timeout);
+    }
+    okapiHeaders.forEach(request::putHeader);
+    request.putHeader(ACCEPT, DEFAULT_ACCEPT);
+
+    Span span = Tracer.getInstance().startSpan(method.name() + " " + OutboundMetrics.template(endpoint),
+      okapiHeaders.get(TRACEPARENT));
+    if (Objects.nonNull(span)) {
+      request.putHeader(TRACEPARENT, span.toTraceparent());
+    }
+    // Storage calls carry the module ID of the incoming request, which says nothing about where they go
+    String connector = endpoint.startsWith(CONNECTOR_PATH) ? okapiHeaders.get(MODULE_ID) : null;
+    OutboundMetrics.Call call = OutboundMetrics.getInstance().start(method.name(), endpoint,
+      okapiHeaders.get(OKAPI_HEADER_TENANT), connector);
+    Handler<AsyncResult<HttpResponse<Buffer>>> handler = ar -> {
+      if (ar.succeeded()) {
+        call.end(ar.result().statusCode());
+        endSpan(span, ar.result().statusCode(), null);
+        future.complete(ar.result());
+      } else {
+        call.end(null);
+        endSpan(span, null, ar.cause());
+        future.completeExceptionally(ar.cause());
+      }
+    };
+    if (Objects.isNull(body)) {
+      request.send(handler);
+    } else {
+      request.putHeader(CONTENT_TYPE, APPLICATION_JSON);
+      request.sendBuffer(body, handler);
+    }
+    return future;
+  }
+
+  static void endSpan(Span span, Integer statusCode, Throwable error) {
+    if (Objects.nonNull(span)) {
+      span.setAttribute("http.status_code", statusCode);
+      span.end(error);
+    }
+  }
+
+  void close() {
+    webClient.close();
+  }
+}
@@ -1,15 +1,34 @@
 package org.folio.config;
 
+import org.folio.client.ConnectorGuard;
+import org.folio.client.OutboundHttpClient;
+import org.folio.service.admin.MetricsService;
+import org.folio.service.admin.TraceService;
+import org.folio.service.export.StorageExportService;
+import org.folio.service.illconnector.IllConnectorService;
 import org.folio.service.illrequest.IllrequestService;
 import org.folio.service.illrequest.IllrequestStorageService;
 import org.folio.service.illsubmissionstatus.IllsubmissionstatusService;
 import org.folio.service.illsubmissionstatus.IllsubmissionstatusStorageService;
 import org.folio.service.illsubmission.IllsubmissionService;
 import org.folio.service.illsubmission.IllsubmissionStorageService;
+import org.folio.service.illsubmission.SubmissionDetailService;
 import org.folio.service.illsupplingagency.IllSupplyingAgencyService;
+import org.folio.service.sarequest.SaRequestPipeline;
+import org.folio.service.sarequest.SupplierDispatchQueue;
+import org.folio.service.saupdate.SaUpdatePipeline;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import static org.folio.config.Constants.CONNECTOR_BREAKER_FAILURE_THRESHOLD;
+import static org.folio.config.Constants.CONNECTOR_BREAKER_OPEN_DURATION;
+import static org.folio.config.Constants.CONNECTOR_BULKHEAD_MAX_CALLS;
+import static org.folio.config.Constants.CONNECTOR_CONNECT_TIMEOUT;
+import static org.folio.config.Constants.OUTBOUND_CLIENT_THREADS;
+
 @Configuration
 public class ApplicationConfig {
   @Bean
@@ -28,4 +47,48 @@ public class ApplicationConfig {
   public IllSupplyingAgencyService illSupplyingAgencyService() {
     return new IllSupplyingAgencyService();
   }
+  @Bean
+  public IllConnectorService illConnectorService() {
+    return new IllConnectorService();
+  }
+  @Bean
+  public SaRequestPipeline saRequestPipeline() {
+    return new SaRequestPipeline();
+  }
+  @Bean
+  public SupplierDispatchQueue supplierDispatchQueue() {
+    return new SupplierDispatchQueue();
+  }
+  @Bean
+  public SaUpdatePipeline saUpdatePipeline() {
+    return new SaUpdatePipeline();
+  }
+  @Bean
+  public SubmissionDetailService submissionDetailService() {
+    return new SubmissionDetailService();
+  }
+  @Bean
+  public MetricsService metricsService() {
+    return new MetricsService();
+  }
+  @Bean
+  public TraceService traceService() {
+    return new TraceService();
+  }
+  @Bean
+  public StorageExportService storageExportService() {
+    return new StorageExportService();
+  }
+  @Bean(destroyMethod = "close")
+  public OutboundHttpClient outboundHttpClient() {
+    return new OutboundHttpClient(Integer.getInteger("outbound.client.threads", OUTBOUND_CLIENT_THREADS),
+      Duration.ofSeconds(CONNECTOR_CONNECT_TIMEOUT),
+      HttpClient.Version.valueOf(System.getProperty("outbound.client.version", HttpClient.Version.HTTP_2.name())));
+  }
+  @Bean
+  public ConnectorGuard connectorGuard() {
+    return new ConnectorGuard(Integer.getInteger("connector.breaker.failureThreshold", CONNECTOR_BREAKER_FAILURE_THRESHOLD),
+      Long.getLong("connector.breaker.openDuration", CONNECTOR_BREAKER_OPEN_DURATION),
+      Integer.getInteger("connector.bulkhead.maxCalls", CONNECTOR_BULKHEAD_MAX_CALLS));
+  }
 }
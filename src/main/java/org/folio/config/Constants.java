@@ -9,10 +9,61 @@ public class Constants {
   }
 
   public static final String ID = "id";
+  public static final String TOTAL_RECORDS = "totalRecords";
   public static final String OKAPI_URL = "x-okapi-url";
   public static final int CONNECTOR_CONNECT_TIMEOUT = 5;
   public static final int CONNECTOR_RESPONSE_TIMEOUT = 10;
+  public static final long SEARCH_CONNECTOR_TIMEOUT = 5000;
+  public static final String ALL_CONNECTORS = "all";
+  public static final String SEARCH_INTERFACE = "ill-connector-search";
+  public static final String SEARCH_CACHE_HEADER = "x-okapi-search-cache";
+  public static final String SEARCH_CACHE_BYPASS = "no-cache";
+  public static final int SEARCH_CACHE_MAX_ENTRIES = 1000;
+  public static final long SEARCH_CACHE_TTL = 120;
+  public static final int SEARCH_PREFETCH_MAX_PER_TENANT = 2;
+  public static final int SA_REQUEST_BATCH_CONCURRENCY = 10;
+  public static final int SA_REQUEST_BATCH_MAX_SIZE = 200;
+  public static final int SUPPLIER_QUEUE_CAPACITY = 10000;
+  public static final int SUPPLIER_QUEUE_CONCURRENCY = 5;
+  public static final int SUPPLIER_RETRY_MAX_ATTEMPTS = 5;
+  public static final long SUPPLIER_RETRY_BASE_DELAY = 1000;
+  public static final long SUPPLIER_RETRY_MAX_DELAY = 60000;
+  public static final String SUPPLIER_DEAD_LETTER_STATUS = "Supplier unreachable";
+  public static final int UPDATE_CONFLICT_RETRIES = 3;
+  public static final int STORAGE_QUERY_MAX_LENGTH = 2000;
+  public static final int STORAGE_GET_BY_IDS_MAX = 500;
+  public static final int EXPORT_PAGE_SIZE = 500;
+  public static final int SUPPLIER_MESSAGE_BATCH_SIZE = 1;
+  public static final long SUPPLIER_MESSAGE_BATCH_DELAY = 20;
+  public static final int SA_UPDATE_STORE_ATTEMPTS = 3;
+  public static final int SA_UPDATE_RECONCILE_ATTEMPTS = 5;
+  public static final long SA_UPDATE_RETRY_BASE_DELAY = 500;
+  public static final int SA_UPDATE_DEDUPE_MAX_ENTRIES = 10000;
+  public static final double PAYLOAD_LOG_SAMPLE_RATE = 0.01;
+  public static final int PAYLOAD_LOG_MAX_LENGTH = 2048;
+  public static final int TRACING_MAX_SPANS = 1000;
   public static final String ISO18626_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ssZ";
 
   public static final String STORAGE_SERVICE = "/ill-ra-storage/";
+
+  public static final int STORAGE_CLIENT_MAX_POOL_SIZE = 20;
+  public static final boolean STORAGE_CLIENT_PIPELINING = false;
+  public static final int STORAGE_CLIENT_PIPELINING_LIMIT = 10;
+  public static final int STORAGE_CLIENT_KEEP_ALIVE_TIMEOUT = 60;
+  public static final int STORAGE_CLIENT_CONNECT_TIMEOUT = 5000;
+  public static final int STORAGE_CLIENT_IDLE_TIMEOUT = 120;
+
+  public static final int OUTBOUND_CLIENT_THREADS = 4;
+
+  public static final int CONNECTOR_BREAKER_FAILURE_THRESHOLD = 5;
+  public static final long CONNECTOR_BREAKER_OPEN_DURATION = 30000;
+  public static final int CONNECTOR_BULKHEAD_MAX_CALLS = 20;
+
+  public static final long CONNECTORS_CACHE_TTL = 300;
+  public static final long CONNECTORS_CACHE_STALE = 3600;
+
+  public static final String INITIAL_SUBMISSION_STATUS_ID = "49600f35-e2af-45ef-a03c-ee0de7ec3c89";
+  public static final int SUBMISSION_STATUS_CACHE_MAX_TENANTS = 100;
+  public static final long SUBMISSION_STATUS_CACHE_TTL = 600;
+  public static final int SUBMISSION_STATUS_PAGE_SIZE = 1000;
 }
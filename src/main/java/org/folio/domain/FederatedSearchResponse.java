@@ -0,0 +1,67 @@
+package org.folio.domain;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Merges the search responses of several connectors into one. Array fields are concatenated in connector order, numeric
+ * fields (e.g. totals) are summed and any other field is taken from the first connector that returned it. The outcome of
+ * each connector is reported under {@code federatedSearch} so clients can tell a partial result from a complete one.
+ */
+public class FederatedSearchResponse {
+
+  public static final String STATUS_OK = "ok";
+  public static final String STATUS_FAILED = "failed";
+  public static final String STATUS_TIMED_OUT = "timedOut";
+
+  private final Map<String, JsonObject> responses = new LinkedHashMap<>();
+  private final JsonArray outcomes = new JsonArray();
+
+  public FederatedSearchResponse withResponse(String connector, JsonObject response) {
+    responses.put(connector, response);
+    outcomes.add(new JsonObject()
+      .put("connector", connector)
+      .put("status", STATUS_OK));
+    return this;
+  }
+
+  public FederatedSearchResponse withFailure(String connector, Throwable throwable) {
+    Throwable cause = throwable instanceof CompletionException && Objects.nonNull(throwable.getCause())
+      ? throwable.getCause() : throwable;
+    outcomes.add(new JsonObject()
+      .put("connector", connector)
+      .put("status", cause instanceof TimeoutException ? STATUS_TIMED_OUT : STATUS_FAILED)
+      .put("message", cause.getMessage()));
+    return this;
+  }
+
+  public boolean hasResponses() {
+    return !responses.isEmpty();
+  }
+
+  public JsonObject build() {
+    JsonObject merged = new JsonObject();
+    for (JsonObject response : responses.values()) {
+      for (String field : response.fieldNames()) {
+        Object value = response.getValue(field);
+        Object current = merged.getValue(field);
+        if (Objects.isNull(current)) {
+          merged.put(field, value instanceof JsonArray ? ((JsonArray) value).copy() : value);
+        } else if (current instanceof JsonArray && value instanceof JsonArray) {
+          ((JsonArray) current).addAll((JsonArray) value);
+        } else if (current instanceof Number && value instanceof Number) {
+          merged.put(field, ((Number) current).longValue() + ((Number) value).longValue());
+        }
+      }
+    }
+    return merged.put("federatedSearch", new JsonObject()
+      .put("partial", responses.size() < outcomes.size())
+      .put("connectors", outcomes));
+  }
+}
@@ -0,0 +1,39 @@
+package org.folio.domain;
+
+import org.folio.rest.jaxrs.model.SaMessageRequest;
+import org.folio.rest.jaxrs.model.SaMessageResponse;
+import org.folio.rest.jaxrs.model.SupplyingAgencyConfirmationHeader;
+import org.folio.rest.jaxrs.model.SupplyingAgencyMessageHeader;
+import org.folio.util.DateTimeUtils;
+
+import static org.folio.config.Constants.ISO18626_DATE_FORMAT;
+
+public class SaUpdateConfirmation {
+
+  private final SaMessageRequest message;
+
+  public SaUpdateConfirmation(SaMessageRequest message) {
+    this.message = message;
+  }
+
+  // Confirms the receipt of a supplying agency message, echoing the identifiers and the reason from
+  // the message we received
+  public SaMessageResponse build() {
+    SupplyingAgencyMessageHeader header = this.message.getHeader();
+    String reasonForMessage = this.message.getMessageInfo().getReasonForMessage().toString();
+    String now = DateTimeUtils.now(ISO18626_DATE_FORMAT);
+
+    SupplyingAgencyConfirmationHeader.ReasonForMessage responseReason = SupplyingAgencyConfirmationHeader.ReasonForMessage.fromValue(reasonForMessage);
+
+    SupplyingAgencyConfirmationHeader supplyingAgencyConfirmationHeader = new SupplyingAgencyConfirmationHeader()
+      .withSupplyingAgencyId(header.getSupplyingAgencyId())
+      .withRequestingAgencyId(header.getRequestingAgencyId())
+      .withTimestamp(now)
+      .withRequestingAgencyRequestId(header.getRequestingAgencyRequestId())
+      .withTimestampReceived(now)
+      .withMessageStatus(SupplyingAgencyConfirmationHeader.MessageStatus.OK)
+      .withReasonForMessage(responseReason);
+    return new SaMessageResponse()
+      .withHeader(supplyingAgencyConfirmationHeader);
+  }
+}
@@ -6,27 +6,26 @@ import org.folio.rest.jaxrs.model.SubmissionMetadata;
 import org.folio.util.DateTimeUtils;
 import static org.folio.config.Constants.ISO18626_DATE_FORMAT;
 
-import java.time.ZonedDateTime;
-
 public class SubmittableSubmission {
 
   private final SubmissionMetadata metadata;
   private final Submission submission;
+  private final String statusId;
 
-  public SubmittableSubmission(SaRequestRequest requestPayload) {
+  public SubmittableSubmission(SaRequestRequest requestPayload, String statusId) {
     // Submission metadata only uses bibliographic & publication info
     this.metadata = new SubmissionMetadata()
       .withBibliographicInfo(requestPayload.getSaRequestMetadata().getBibliographicInfo())
       .withPublicationInfo(requestPayload.getSaRequestMetadata().getPublicationInfo());
     this.submission = new Submission();
+    this.statusId = statusId;
   }
 
   public Submission build() {
     return this.submission
       .withSubmissionMetadata(this.metadata)
-      .withSubmissionDate(DateTimeUtils.dtToString(ZonedDateTime.now(), ISO18626_DATE_FORMAT))
-      // TODO: This will be a default value
-      .withStatusId("49600f35-e2af-45ef-a03c-ee0de7ec3c89");
+      .withSubmissionDate(DateTimeUtils.now(ISO18626_DATE_FORMAT))
+      .withStatusId(this.statusId);
   }
 
 }
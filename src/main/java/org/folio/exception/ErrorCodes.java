@@ -6,6 +6,11 @@ public enum ErrorCodes {
 
   GENERIC_ERROR_CODE("genericError", "Generic error"),
   MISMATCH_BETWEEN_ID_IN_PATH_AND_BODY("idMismatch", "Mismatch between id in path and request body"),
+  CONNECTOR_UNAVAILABLE("connectorUnavailable", "The connector is failing, calls to it are suspended for a while"),
+  CONNECTOR_BUSY("connectorBusy", "The connector has too many calls in progress"),
+  BATCH_TOO_LARGE("batchTooLarge", "The batch holds more requests than are accepted at once"),
+  INITIAL_SUBMISSION_STATUS_NOT_CONFIGURED("initialSubmissionStatusNotConfigured", "The configured initial submission status does not exist, check submission.status.initial"),
+  RECORD_VERSION_CONFLICT("recordVersionConflict", "The record was changed since it was read, reload it and apply the change again"),
   ORGANIZATION_UNITS_NOT_FOUND("organizationAcqUnitsNotFound", "Acquisitions units assigned to organization cannot be found"),
   USER_HAS_NO_ACQ_PERMISSIONS("userHasNoAcqUnitsPermission", "User does not have permissions to manage acquisition units assignments - operation is restricted"),
   USER_HAS_NO_PERMISSIONS("userHasNoPermission", "User does not have permissions - operation is restricted");
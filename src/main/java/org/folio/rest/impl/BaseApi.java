@@ -4,6 +4,7 @@ import static io.vertx.core.Future.succeededFuture;
 import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
 import static javax.ws.rs.core.HttpHeaders.LOCATION;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
 import static javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 import static org.folio.exception.ErrorCodes.GENERIC_ERROR_CODE;
 
@@ -33,6 +34,17 @@ public class BaseApi {
       .build();
   }
 
+  public Response buildOkTextResponse(String body) {
+    return Response.ok(body, TEXT_PLAIN)
+      .build();
+  }
+
+  public Response buildAcceptedResponse(Object body) {
+    return Response.accepted(body)
+      .header(CONTENT_TYPE, APPLICATION_JSON)
+      .build();
+  }
+
   public Response buildNoContentResponse() {
     return Response.noContent()
       .build();
@@ -105,7 +117,10 @@ public class BaseApi {
     case 400:
     case 403:
     case 404:
+    case 409:
     case 422:
+    case 502:
+    case 503:
       responseBuilder = Response.status(code);
       break;
     default:
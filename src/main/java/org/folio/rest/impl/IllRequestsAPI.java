@@ -2,39 +2,55 @@ package org.folio.rest.impl;
 
 import static io.vertx.core.Future.succeededFuture;
 import static org.folio.config.Constants.*;
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TENANT;
 
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Context;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.RoutingContext;
 
-import io.vertx.core.json.JsonObject;
-import org.folio.domain.SubmittableRequest;
-import org.folio.domain.SubmittableSubmission;
-import org.folio.domain.SupplyingAgency;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.folio.rest.jaxrs.model.*;
-import org.folio.rest.jaxrs.model.supplying_agency_message_storage.request.SupplyingAgencyMessageStorageRequest;
 import org.folio.rest.jaxrs.resource.IllRa;
+import org.folio.service.admin.MetricsService;
+import org.folio.service.admin.TraceService;
+import org.folio.service.export.StorageExportService;
 import org.folio.service.illconnector.IllConnectorService;
 import org.folio.service.illsubmission.IllsubmissionService;
+import org.folio.service.illsubmission.SubmissionDetailService;
 import org.folio.service.illrequest.IllrequestService;
 import org.folio.service.illsubmissionstatus.IllsubmissionstatusService;
 import org.folio.service.illsupplingagency.IllSupplyingAgencyService;
+import org.folio.service.sarequest.SaRequestPipeline;
+import org.folio.service.saupdate.SaUpdatePipeline;
 import org.folio.spring.SpringContextUtil;
+import org.folio.tracing.Span;
+import org.folio.tracing.Tracer;
 import org.folio.util.DateTimeUtils;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import javax.ws.rs.core.Response;
-import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class IllRequestsAPI extends BaseApi implements IllRa {
 
   private static final String SUBMISSIONS_LOCATION_PREFIX = "/submissions/%s";
   private static final String REQUESTS_LOCATION_PREFIX = "/requests/%s";
   private static final String SUBMISSION_STATUSES_LOCATION_PREFIX = "/submission-statuses/%s";
+  private static final String JSON_LINES = "application/x-ndjson";
+  private static final Logger logger = LogManager.getLogger(IllRequestsAPI.class);
 
   @Autowired
   private IllsubmissionService illsubmissionService;
@@ -44,6 +60,20 @@ public class IllRequestsAPI extends BaseApi implements IllRa {
   private IllsubmissionstatusService illsubmissionstatusService;
   @Autowired
   private IllSupplyingAgencyService illSupplyingAgencyService;
+  @Autowired
+  private IllConnectorService illConnectorService;
+  @Autowired
+  private SaRequestPipeline saRequestPipeline;
+  @Autowired
+  private SaUpdatePipeline saUpdatePipeline;
+  @Autowired
+  private StorageExportService storageExportService;
+  @Autowired
+  private SubmissionDetailService submissionDetailService;
+  @Autowired
+  private MetricsService metricsService;
+  @Autowired
+  private TraceService traceService;
 
   public IllRequestsAPI() {
     SpringContextUtil.autowireDependencies(this, Vertx.currentContext());
@@ -74,25 +104,10 @@ public class IllRequestsAPI extends BaseApi implements IllRa {
       .exceptionally(t -> handleErrorResponse(asyncResultHandler, t));
   }
 
-  private CompletableFuture<Submission> submitSubmission(Submission submission, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    return illsubmissionService.createSubmission(submission, vertxContext, okapiHeaders);
-  }
-
-  private CompletableFuture<Request> submitRequest(Request request, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    return illrequestService.createRequest(request, vertxContext, okapiHeaders);
-  }
-
-  private CompletableFuture<SaRequestResponse> submitToSupplier(SaRequestRequest request, Context vertxContext, Map<String, String> okapiHeaders) {
-    SupplyingAgency saUtil = new SupplyingAgency();
-    JsonObject requestBody = saUtil.buildRequest(request);
-    return illSupplyingAgencyService.sendSupplierRequest(requestBody, vertxContext, okapiHeaders);
-  }
-
   @Override
   public void getIllRaConnectorsBySupporting(String supporting, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
     // Get all connectors supporting the "info" interface, i.e. all available connectors
-    IllConnectorService ics = new IllConnectorService();
-    ics.getConnectorsSupporting(supporting, okapiHeaders)
+    illConnectorService.getConnectorsSupporting(supporting, okapiHeaders)
       .thenAccept(res -> {
         // We're using org.json JSONObject instead of Vert.x JsonObject because
         // for reasons that I couldn't fathom, the latter was creating "map" and
@@ -100,8 +115,8 @@ public class IllRequestsAPI extends BaseApi implements IllRa {
         JSONObject response = new JSONObject();
         response.put("connectors", res);
         asyncResultHandler.handle(succeededFuture(buildOkResponse(response.toString())));
-      });
-
+      })
+      .exceptionally(t -> handleErrorResponse(asyncResultHandler, t));
   }
 
   @Override
@@ -110,35 +125,69 @@ public class IllRequestsAPI extends BaseApi implements IllRa {
     getIllRaConnectorsBySupporting("ill-connector-info", okapiHeaders, asyncResultHandler, vertxContext);
   }
 
+  @Override
+  public void deleteIllRaConnectors(Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    illConnectorService.invalidateConnectors(okapiHeaders);
+    asyncResultHandler.handle(succeededFuture(buildNoContentResponse()));
+  }
+
   @Override
   public void getIllRaSearch(String query, String connector, int offset, int limit, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    illSupplyingAgencyService.sendSearch(query, connector, offset, limit, okapiHeaders)
-      .thenAccept(response -> asyncResultHandler.handle(succeededFuture(buildOkResponse(response))))
+    List<String> connectors = splitCommaSeparated(connector);
+    if (connectors.size() == 1 && !ALL_CONNECTORS.equals(connectors.get(0))) {
+      illSupplyingAgencyService.sendSearch(query, connectors.get(0), offset, limit, okapiHeaders)
+        .thenAccept(response -> asyncResultHandler.handle(succeededFuture(buildOkResponse(response))))
+        .exceptionally(t -> handleErrorResponse(asyncResultHandler, t));
+      return;
+    }
+    // Federated search, either across the listed connectors or across all connectors
+    // that can search
+    CompletableFuture<? extends List<String>> searchConnectors = connectors.contains(ALL_CONNECTORS)
+      ? illConnectorService.getConnectorsSupporting(SEARCH_INTERFACE, okapiHeaders)
+      : CompletableFuture.completedFuture(connectors);
+    searchConnectors
+      .thenCompose(ids -> illSupplyingAgencyService.sendFederatedSearch(query, ids, offset, limit, okapiHeaders))
+      .thenAccept(response -> asyncResultHandler.handle(succeededFuture(buildOkResponse(response.encode()))))
       .exceptionally(t -> handleErrorResponse(asyncResultHandler, t));
   }
 
+  private static List<String> splitCommaSeparated(String values) {
+    return Arrays.stream(values.split(","))
+      .map(String::trim)
+      .filter(StringUtils::isNotEmpty)
+      .collect(Collectors.toList());
+  }
+
   @Override
-  // Some pretty gnarly chaining going on here. First we create a submission, then
-  // use the created submission to create a request, then use that to make a request
-  // with the supplier
+  // First we create a submission, then use it to create the local request and to make the
+  // request with the supplier, those two run concurrently
   public void postIllRaSaRequest(SaRequestRequest request, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    Submission submission = new SubmittableSubmission(request).build();
-    submitSubmission(submission, okapiHeaders, asyncResultHandler, vertxContext)
-      .thenApply(createdSub -> new SubmittableRequest(createdSub, request).build())
-      .thenApply(submittableRequest -> submitRequest(submittableRequest, okapiHeaders, asyncResultHandler, vertxContext))
-      .thenApply(submittedRequest -> submitToSupplier(request, vertxContext, okapiHeaders))
-      .thenAccept(supplierResponse -> {
-        supplierResponse.thenAccept(sr -> {
-            asyncResultHandler.handle(succeededFuture(buildOkResponse(sr)));
-        })
+    if (saRequestPipeline.isAsyncDispatch()) {
+      // Respond once the request is persisted, the supplier is contacted in the background
+      traced("POST /ill-ra/sa-request", okapiHeaders, headers -> saRequestPipeline.processAsync(request, vertxContext, headers))
+        .thenAccept(createdRequest -> asyncResultHandler.handle(succeededFuture(buildAcceptedResponse(createdRequest))))
         .exceptionally(t -> handleErrorResponse(asyncResultHandler, t));
-      })
+      return;
+    }
+    traced("POST /ill-ra/sa-request", okapiHeaders, headers -> saRequestPipeline.process(request, vertxContext, headers))
+      .thenAccept(supplierResponse -> asyncResultHandler.handle(succeededFuture(buildOkResponse(supplierResponse))))
+      .exceptionally(t -> handleErrorResponse(asyncResultHandler, t));
+  }
+
+  @Override
+  public void postIllRaSaRequestBatch(SaRequestBatch entity, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    traced("POST /ill-ra/sa-request/batch", okapiHeaders,
+        headers -> saRequestPipeline.processBatch(entity.getSaRequests(), vertxContext, headers))
+      .thenAccept(results -> asyncResultHandler.handle(succeededFuture(buildOkResponse(results))))
       .exceptionally(t -> handleErrorResponse(asyncResultHandler, t));
   }
 
   @Override
-  public void getIllRaSubmissions(int offset, int limit, String lang, String query, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    illsubmissionService.getSubmissions(offset, limit, lang, query, vertxContext, okapiHeaders)
+  public void getIllRaSubmissions(String ids, int offset, int limit, String lang, String query, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    CompletableFuture<Submissions> submissionsFuture = StringUtils.isNotBlank(ids)
+      ? illsubmissionService.getSubmissionsByIds(splitCommaSeparated(ids), vertxContext, okapiHeaders)
+      : illsubmissionService.getSubmissions(offset, limit, lang, query, vertxContext, okapiHeaders);
+    submissionsFuture
       .thenAccept(submissions -> asyncResultHandler.handle(succeededFuture(buildOkResponse(submissions))))
       .exceptionally(t -> handleErrorResponse(asyncResultHandler, t));
   }
@@ -146,10 +195,9 @@ public class IllRequestsAPI extends BaseApi implements IllRa {
   @Override
   public void postIllRaSubmissions(String lang, Submission entity, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
     // Populate the date this submission was made
-    entity.setSubmissionDate(DateTimeUtils.dtToString(ZonedDateTime.now(), ISO18626_DATE_FORMAT));
-    // TODO: This wil be whatever is set as the "initial" status
-    entity.setStatusId("49600f35-e2af-45ef-a03c-ee0de7ec3c89");
-    illsubmissionService.createSubmission(entity, vertxContext, okapiHeaders)
+    entity.setSubmissionDate(DateTimeUtils.now(ISO18626_DATE_FORMAT));
+    illsubmissionstatusService.getInitialSubmissionStatusId(vertxContext, okapiHeaders)
+      .thenCompose(statusId -> illsubmissionService.createSubmission(entity.withStatusId(statusId), vertxContext, okapiHeaders))
       .thenAccept(sub -> asyncResultHandler.handle(succeededFuture(buildResponseWithLocation(okapiHeaders.get(OKAPI_URL),
         String.format(SUBMISSIONS_LOCATION_PREFIX, sub.getId()), entity))))
       .exceptionally(t -> handleErrorResponse(asyncResultHandler, t));
@@ -184,14 +232,24 @@ public class IllRequestsAPI extends BaseApi implements IllRa {
       .exceptionally(t -> handleErrorResponse(asyncResultHandler, t));
   }
 
+  @Override
+  public void getIllRaSubmissionsDetailBySubmissionId(String submissionId, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    submissionDetailService.getSubmissionDetail(submissionId, vertxContext, okapiHeaders)
+      .thenAccept(detail -> asyncResultHandler.handle(succeededFuture(buildOkResponse(detail))))
+      .exceptionally(t -> handleErrorResponse(asyncResultHandler, t));
+  }
+
   @Override
   public void postIllRaSubmissionsRequestsBySubmissionId(String submissionId, String lang, Request entity, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
     handleErrorResponse(asyncResultHandler, new Exception("Endpoint not implemented"));
   }
 
   @Override
-  public void getIllRaRequests(int offset, int limit, String lang, String query, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    illrequestService.getRequests(offset, limit, lang, query, vertxContext, okapiHeaders)
+  public void getIllRaRequests(String ids, int offset, int limit, String lang, String query, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    CompletableFuture<Requests> requestsFuture = StringUtils.isNotBlank(ids)
+      ? illrequestService.getRequestsByIds(splitCommaSeparated(ids), vertxContext, okapiHeaders)
+      : illrequestService.getRequests(offset, limit, lang, query, vertxContext, okapiHeaders);
+    requestsFuture
       .thenAccept(requests -> asyncResultHandler.handle(succeededFuture(buildOkResponse(requests))))
       .exceptionally(t -> handleErrorResponse(asyncResultHandler, t));
   }
@@ -261,68 +319,72 @@ public class IllRequestsAPI extends BaseApi implements IllRa {
       .exceptionally(t -> handleErrorResponse(asyncResultHandler, t));
   }
 
-  // Update the local request with the supplier's ID if appropriate, we don't check that this succeeds
-  // we probably should
-  public void updateLocalRequestSupplierId(String raReqId, String saReqId, Context vertxContext, Map<String, String> okapiHeaders) {
-    illrequestService.getRequestById(raReqId, vertxContext, okapiHeaders)
-      .thenApply(toUpdate -> {
-        toUpdate.setSupplierRequestId(saReqId);
-        illrequestService.updateRequestById(raReqId, toUpdate, vertxContext, okapiHeaders);
-        return null;
-      });
+  @Override
+  public void postIllRaSaUpdate(SaMessageRequest entity, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    // We've received an update from a supplier, it is confirmed once stored
+    traced("POST /ill-ra/sa-update", okapiHeaders, headers -> saUpdatePipeline.ingest(entity, vertxContext, headers))
+      .thenAccept(response -> asyncResultHandler.handle(succeededFuture(buildOkResponse(response))))
+      .exceptionally(t -> handleErrorResponse(asyncResultHandler, t));
   }
 
   @Override
-  public void postIllRaSaUpdate(SaMessageRequest entity, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
-    // We've received an update from a supplier, act on it
-
-    // First store the message
-    String requestId = entity.getHeader().getRequestingAgencyRequestId();
-    // We store the entire message
-    JsonObject message = JsonObject.mapFrom(entity);
-    SupplyingAgencyMessageStorageRequest samsr = new SupplyingAgencyMessageStorageRequest()
-      .withRequestId(requestId)
-      .withMessage(message.toString());
-
-    // We may need to update our local request with the supplier's request ID. This is a side-effect that should not
-    // be here, we need to refactor it out into somewhere less icky. The message storage is not dependent on this happening,
-    // but what happens if this fails?
-    JsonObject jsonHeader = message.getJsonObject("Header");
-    if (jsonHeader.containsKey("RequestingAgencyRequestId") && jsonHeader.containsKey("SupplyingAgencyRequestId")) {
-      String raReqId = jsonHeader.getString("RequestingAgencyRequestId");
-      String saReqId = jsonHeader.getString("SupplyingAgencyRequestId");
-      this.updateLocalRequestSupplierId(raReqId, saReqId, vertxContext, okapiHeaders);
-    }
+  public void getIllRaExportRequests(String query, RoutingContext routingContext, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    streamExport(storageExportService::exportRequests, query, routingContext, okapiHeaders, asyncResultHandler);
+  }
 
-    illSupplyingAgencyService.storeSupplierMessage(samsr, requestId, vertxContext, okapiHeaders)
-      .thenAccept(vVoid -> {
-        // If we managed to store the message, we can construct and return
-        // a confirmation
-        //
-        // Gather what we need for the confirmation
-        SupplyingAgencyMessageHeader header = entity.getHeader();
-        SupplyingAgencyMessageInfo info = entity.getMessageInfo();
-        String reasonForMessage = info.getReasonForMessage().toString();
-        String now = DateTimeUtils.dtToString(ZonedDateTime.now(), ISO18626_DATE_FORMAT);
-
-        SupplyingAgencyConfirmationHeader.ReasonForMessage responseReason = SupplyingAgencyConfirmationHeader.ReasonForMessage.fromValue(reasonForMessage);
-
-        SupplyingAgencyConfirmationHeader supplyingAgencyConfirmationHeader = new SupplyingAgencyConfirmationHeader()
-          .withSupplyingAgencyId(header.getSupplyingAgencyId())
-          .withRequestingAgencyId(header.getRequestingAgencyId())
-          .withTimestamp(now)
-          .withRequestingAgencyRequestId(header.getRequestingAgencyRequestId())
-          .withTimestampReceived(now)
-          .withMessageStatus(SupplyingAgencyConfirmationHeader.MessageStatus.OK)
-          .withReasonForMessage(responseReason);
-        SaMessageResponse response = new SaMessageResponse()
-          .withHeader(supplyingAgencyConfirmationHeader);
-
-        asyncResultHandler.handle(succeededFuture(buildOkResponse(response)));
-      })
-      .exceptionally(t -> handleErrorResponse(asyncResultHandler, t));
+  @Override
+  public void getIllRaExportSubmissions(String query, RoutingContext routingContext, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    streamExport(storageExportService::exportSubmissions, query, routingContext, okapiHeaders, asyncResultHandler);
+  }
+
+  @Override
+  public void getIllRaAdminMetrics(Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    asyncResultHandler.handle(succeededFuture(buildOkTextResponse(metricsService.scrape())));
+  }
+
+  @Override
+  public void getIllRaAdminTraces(String traceId, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
+    asyncResultHandler.handle(succeededFuture(buildOkResponse(traceService.getSpans(traceId,
+      okapiHeaders.get(OKAPI_HEADER_TENANT)))));
+  }
 
+  // Runs a flow as a new trace. The flow is handed headers that carry the trace, the storage and connector calls made with
+  // them become spans of it. Work the flow leaves running in the background keeps adding spans after the trace's own ends
+  private <T> CompletableFuture<T> traced(String name, Map<String, String> okapiHeaders,
+      Function<Map<String, String>, CompletableFuture<T>> flow) {
+    String tenant = okapiHeaders.get(OKAPI_HEADER_TENANT);
+    Span span = Tracer.getInstance().startTrace(name, tenant);
+    if (Objects.nonNull(span)) {
+      span.setAttribute("tenant", tenant);
+    }
+    return flow.apply(Tracer.withSpan(okapiHeaders, span))
+      .whenComplete((result, t) -> Tracer.end(span, t));
+  }
+
+  // The records are written straight to the response as they are read. Once the first of them has been sent the status
+  // can no longer change, so a later failure cuts the response short instead
+  private void streamExport(ExportFunction export, String query, RoutingContext routingContext, Map<String, String> okapiHeaders,
+      Handler<AsyncResult<Response>> asyncResultHandler) {
+    HttpServerResponse response = routingContext.response();
+    response.setChunked(true);
+    response.putHeader(HttpHeaders.CONTENT_TYPE, JSON_LINES);
+    export.apply(query, response, okapiHeaders)
+      .thenAccept(written -> response.end())
+      .exceptionally(t -> {
+        if (response.headWritten()) {
+          logger.error("Export failed part way through", t);
+          response.reset();
+          return null;
+        }
+        return handleErrorResponse(asyncResultHandler, t);
+      });
   }
+
+  @FunctionalInterface
+  private interface ExportFunction {
+    CompletableFuture<Long> apply(String query, HttpServerResponse response, Map<String, String> okapiHeaders);
+  }
+
 /*
   @Override
   public void postIllRaConnectorByConnectorId(String connectorId, Map<String, String> okapiHeaders, Handler<AsyncResult<Response>> asyncResultHandler, Context vertxContext) {
@@ -1,5 +1,6 @@
 package org.folio.rest.impl;
 
+import org.folio.client.HttpClientPool;
 import org.folio.config.ApplicationConfig;
 import org.folio.rest.resource.interfaces.InitAPI;
 import org.folio.spring.SpringContextUtil;
@@ -13,6 +14,7 @@ import io.vertx.core.Vertx;
 public class InitAPIs implements InitAPI {
   @Override
   public void init(Vertx vertx, Context context, Handler<AsyncResult<Boolean>> handler) {
+    HttpClientPool.init(vertx);
     vertx.executeBlocking(future -> {
       SpringContextUtil.init(vertx, context, ApplicationConfig.class);
       future.complete();
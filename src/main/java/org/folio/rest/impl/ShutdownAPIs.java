@@ -0,0 +1,17 @@
+package org.folio.rest.impl;
+
+import org.folio.client.HttpClientPool;
+import org.folio.rest.resource.interfaces.ShutdownAPI;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+
+public class ShutdownAPIs implements ShutdownAPI {
+  @Override
+  public void shutdown(Vertx vertx, Handler<AsyncResult<Void>> handler) {
+    HttpClientPool.closeAll();
+    handler.handle(Future.succeededFuture());
+  }
+}
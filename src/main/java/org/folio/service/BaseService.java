@@ -1,46 +1,66 @@
 package org.folio.service;
 
 import io.vertx.core.Context;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
 import one.util.streamex.StreamEx;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.folio.client.HttpClientPool;
+import org.folio.client.PooledHttpClient;
 import org.folio.exception.HttpException;
-import org.folio.rest.tools.client.HttpClientFactory;
-import org.folio.rest.tools.client.interfaces.HttpClientInterface;
 import org.folio.rest.tools.utils.TenantTool;
+import org.folio.util.JsonCodec;
+import org.folio.util.PayloadLogger;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import static java.util.Objects.nonNull;
+import static java.util.Objects.isNull;
 import static javax.ws.rs.core.HttpHeaders.LOCATION;
-import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
-import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 import static org.folio.config.Constants.OKAPI_URL;
+import static org.folio.config.Constants.STORAGE_GET_BY_IDS_MAX;
+import static org.folio.exception.ErrorCodes.RECORD_VERSION_CONFLICT;
 import static org.folio.rest.RestVerticle.OKAPI_HEADER_TENANT;
 
 public abstract class BaseService {
 
+  private static final String ERROR_MESSAGE = "errorMessage";
+
   protected final Logger logger = LogManager.getLogger(this.getClass());
+  private final int maxIdsPerRequest = Integer.getInteger("storage.getByIds.max", STORAGE_GET_BY_IDS_MAX);
   private static final String EXCEPTION_CALLING_ENDPOINT_MSG = "Exception calling %s %s";
   private static final String CALLING_ENDPOINT_MSG = "Sending {} {}";
-  private static final String ERROR_MESSAGE = "errorMessage";
+  private static final String SENDING_BODY_MSG = "Sending '{} {}' with body: {}";
+  private static final String RECEIVED_BODY_MSG = "The response body for '{} {}': {}";
   private static final String ID = "id";
   private static final Pattern CQL_SORT_BY_PATTERN = Pattern.compile("(.*)(\\ssortBy\\s.*)", Pattern.CASE_INSENSITIVE);
+  private static final Pattern UUID_PATTERN = Pattern.compile(
+    "^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$");
 
   public static String buildQuery(String query, Logger logger) {
     return isEmpty(query) ? EMPTY : "&query=" + encodeQuery(query, logger);
@@ -60,32 +80,16 @@ public abstract class BaseService {
     }
   }
 
-  /**
-   * Some requests do not have body and in happy flow do not produce response body. The Accept header is required for calls to
-   * storage
-   */
-  private static void setDefaultHeaders(HttpClientInterface httpClient) {
-    // The RMB's HttpModuleClient2.ACCEPT is in sentence case. Using the same format to avoid duplicates (issues migrating to RMB
-    // 27.1.1)
-    httpClient.setDefaultHeaders(Collections.singletonMap("Accept", APPLICATION_JSON + ", " + TEXT_PLAIN));
-  }
-
-  public HttpClientInterface getHttpClient(Map<String, String> okapiHeaders, boolean setDefaultHeaders) {
-    final String okapiURL = okapiHeaders.getOrDefault(OKAPI_URL, "");
-    final String tenantId = TenantTool.calculateTenantId(okapiHeaders.get(OKAPI_HEADER_TENANT));
-
-    HttpClientInterface httpClient = HttpClientFactory.getHttpClient(okapiURL, tenantId);
-
-    // Some requests do not have body and in happy flow do not produce response body. The Accept header is required for calls to
-    // storage
-    if (setDefaultHeaders) {
-      setDefaultHeaders(httpClient);
-    }
-    return httpClient;
+  public static String getTenantId(Map<String, String> okapiHeaders) {
+    return TenantTool.calculateTenantId(okapiHeaders.get(OKAPI_HEADER_TENANT));
   }
 
-  public HttpClientInterface getHttpClient(Map<String, String> okapiHeaders) {
-    return getHttpClient(okapiHeaders, true);
+  /**
+   * Returns the pooled client for the Okapi URL of the current request. The client is shared with other storage calls made
+   * on the same Vert.x context and must not be closed.
+   */
+  public PooledHttpClient getHttpClient(Map<String, String> okapiHeaders) {
+    return HttpClientPool.getClient(okapiHeaders.getOrDefault(OKAPI_URL, ""));
   }
 
   /**
@@ -94,14 +98,30 @@ public abstract class BaseService {
    * @param recordData json to post
    * @return completable future holding id of newly created entity Record or an exception if process failed
    */
-  public CompletableFuture<String> handlePostRequest(JsonObject recordData, String endpoint, HttpClientInterface httpClient,
+  public CompletableFuture<String> handlePostRequest(JsonObject recordData, String endpoint, PooledHttpClient httpClient,
+      Context ctx, Map<String, String> okapiHeaders, Logger logger) {
+    return postBuffer(recordData::toBuffer, endpoint, httpClient, okapiHeaders, logger);
+  }
+
+  /**
+   * Same as {@link #handlePostRequest(JsonObject, String, PooledHttpClient, Context, Map, Logger)} for a model object,
+   * which is written straight to the request body.
+   *
+   * @param record model object to post
+   * @return completable future holding id of newly created entity Record or an exception if process failed
+   */
+  public CompletableFuture<String> handlePostRequest(Object record, String endpoint, PooledHttpClient httpClient,
       Context ctx, Map<String, String> okapiHeaders, Logger logger) {
+    return postBuffer(() -> JsonCodec.encode(record), endpoint, httpClient, okapiHeaders, logger);
+  }
+
+  private CompletableFuture<String> postBuffer(Supplier<Buffer> bodySupplier, String endpoint, PooledHttpClient httpClient,
+      Map<String, String> okapiHeaders, Logger logger) {
     CompletableFuture<String> future = new CompletableFuture<>();
     try {
-      if (logger.isDebugEnabled()) {
-        logger.debug("Sending 'POST {}' with body: {}", endpoint, recordData.encodePrettily());
-      }
-      httpClient.request(HttpMethod.POST, recordData.toBuffer(), endpoint, okapiHeaders)
+      Buffer body = bodySupplier.get();
+      PayloadLogger.log(logger, SENDING_BODY_MSG, "POST", endpoint, () -> body);
+      httpClient.request(HttpMethod.POST, body, endpoint, okapiHeaders)
         .thenApply(this::verifyAndExtractRecordId)
         .thenAccept(id -> {
           future.complete(id);
@@ -109,7 +129,7 @@ public abstract class BaseService {
         })
         .exceptionally(throwable -> {
           future.completeExceptionally(throwable);
-          logger.error(String.format("'POST %s' request failed. Request body: %s", endpoint, recordData.encodePrettily()), throwable);
+          logger.error("'POST {}' request failed. Request body: {}", endpoint, PayloadLogger.truncated(body), throwable);
           return null;
         });
     } catch (Exception e) {
@@ -118,22 +138,45 @@ public abstract class BaseService {
     return future;
   }
 
-  public CompletableFuture<JsonObject> handleGetRequest(String endpoint, HttpClientInterface httpClient,
+  public CompletableFuture<JsonObject> handleGetRequest(String endpoint, PooledHttpClient httpClient,
+      Map<String, String> okapiHeaders, Logger logger) {
+    return getBody(endpoint, 0, this::verifyAndExtractBody, httpClient, okapiHeaders, logger);
+  }
+
+  /**
+   * Same as {@link #handleGetRequest(String, PooledHttpClient, Map, Logger)}, with the call cancelled if it has not been
+   * answered within the timeout.
+   *
+   * @param timeout milliseconds the call may take
+   */
+  public CompletableFuture<JsonObject> handleGetRequest(String endpoint, long timeout, PooledHttpClient httpClient,
       Map<String, String> okapiHeaders, Logger logger) {
-    CompletableFuture<JsonObject> future = new CompletableFuture<>();
+    return getBody(endpoint, timeout, this::verifyAndExtractBody, httpClient, okapiHeaders, logger);
+  }
+
+  /**
+   * Same as {@link #handleGetRequest(String, PooledHttpClient, Map, Logger)}, with the response body read straight into
+   * a model object.
+   *
+   * @param type model class of the response body
+   * @return completable future holding the response body, null when there is none
+   */
+  public <T> CompletableFuture<T> handleGetRequest(String endpoint, Class<T> type, PooledHttpClient httpClient,
+      Map<String, String> okapiHeaders, Logger logger) {
+    return getBody(endpoint, 0, response -> verifyAndDecodeBody(response, type), httpClient, okapiHeaders, logger);
+  }
+
+  private <T> CompletableFuture<T> getBody(String endpoint, long timeout, Function<HttpResponse<Buffer>, T> bodyReader,
+      PooledHttpClient httpClient, Map<String, String> okapiHeaders, Logger logger) {
+    CompletableFuture<T> future = new CompletableFuture<>();
     try {
-      logger.info("Calling GET {}", endpoint);
-      httpClient.request(HttpMethod.GET, endpoint, okapiHeaders)
+      logger.debug(CALLING_ENDPOINT_MSG, HttpMethod.GET, endpoint);
+      httpClient.request(HttpMethod.GET, null, endpoint, okapiHeaders, timeout)
         .thenApply(response -> {
-          logger.debug("Validating response for GET {}", endpoint);
-          return verifyAndExtractBody(response);
-        })
-        .thenAccept(body -> {
-          if (logger.isInfoEnabled()) {
-            logger.info("The response body for GET {}: {}", endpoint, nonNull(body) ? body.encodePrettily() : null);
-          }
-          future.complete(body);
+          PayloadLogger.log(logger, RECEIVED_BODY_MSG, "GET", endpoint, response::bodyAsString);
+          return bodyReader.apply(response);
         })
+        .thenAccept(future::complete)
         .exceptionally(t -> {
           logger.error(String.format(EXCEPTION_CALLING_ENDPOINT_MSG, HttpMethod.GET, endpoint), t);
           future.completeExceptionally(t);
@@ -152,22 +195,38 @@ public abstract class BaseService {
    * @param recordData json to use for update operation
    * @param endpoint   endpoint
    */
-  public CompletableFuture<Void> handlePutRequest(String endpoint, JsonObject recordData, HttpClientInterface httpClient,
+  public CompletableFuture<Void> handlePutRequest(String endpoint, JsonObject recordData, PooledHttpClient httpClient,
+       Map<String, String> okapiHeaders, Logger logger) {
+    return putBuffer(endpoint, recordData::toBuffer, httpClient, okapiHeaders, logger);
+  }
+
+  /**
+   * Same as {@link #handlePutRequest(String, JsonObject, PooledHttpClient, Map, Logger)} for a model object, which is
+   * written straight to the request body.
+   *
+   * @param record   model object to use for update operation
+   * @param endpoint endpoint
+   */
+  public CompletableFuture<Void> handlePutRequest(String endpoint, Object record, PooledHttpClient httpClient,
+       Map<String, String> okapiHeaders, Logger logger) {
+    return putBuffer(endpoint, () -> JsonCodec.encode(record), httpClient, okapiHeaders, logger);
+  }
+
+  private CompletableFuture<Void> putBuffer(String endpoint, Supplier<Buffer> bodySupplier, PooledHttpClient httpClient,
        Map<String, String> okapiHeaders, Logger logger) {
     CompletableFuture<Void> future = new CompletableFuture<>();
     try {
-      if (logger.isDebugEnabled()) {
-        logger.debug("Sending 'PUT {}' with body: {}", endpoint, recordData.encodePrettily());
-      }
-      httpClient.request(HttpMethod.PUT, recordData.toBuffer(), endpoint, okapiHeaders)
-        .thenApply(this::verifyAndExtractBody)
+      Buffer body = bodySupplier.get();
+      PayloadLogger.log(logger, SENDING_BODY_MSG, "PUT", endpoint, () -> body);
+      httpClient.request(HttpMethod.PUT, body, endpoint, okapiHeaders)
+        .thenAccept(this::verifyResponse)
         .thenAccept(response -> {
           logger.debug("'PUT {}' request successfully processed", endpoint);
           future.complete(null);
         })
         .exceptionally(e -> {
           future.completeExceptionally(e);
-          logger.error(String.format("'PUT %s' request failed. Request body: %s", endpoint, recordData.encodePrettily()), e);
+          logger.error("'PUT {}' request failed. Request body: {}", endpoint, PayloadLogger.truncated(body), e);
           return null;
         });
     } catch (Exception e) {
@@ -181,7 +240,7 @@ public abstract class BaseService {
    *
    * @param endpoint endpoint
    */
-  public CompletableFuture<Void> handleDeleteRequest(String endpoint, HttpClientInterface httpClient,
+  public CompletableFuture<Void> handleDeleteRequest(String endpoint, PooledHttpClient httpClient,
       Map<String, String> okapiHeaders, Logger logger) {
     CompletableFuture<Void> future = new CompletableFuture<>();
     logger.debug(CALLING_ENDPOINT_MSG, HttpMethod.DELETE, endpoint);
@@ -202,34 +261,138 @@ public abstract class BaseService {
     return future;
   }
 
-  public JsonObject verifyAndExtractBody(org.folio.rest.tools.client.Response response) {
-    if (!org.folio.rest.tools.client.Response.isSuccess(response.getCode())) {
-      throw new HttpException(response.getCode(), response.getError()
-        .getString(ERROR_MESSAGE));
+  public JsonObject verifyAndExtractBody(HttpResponse<Buffer> response) {
+    if (!isSuccess(response.statusCode())) {
+      throw new HttpException(response.statusCode(), errorMessage(response));
     }
-    return response.getBody();
+    Buffer body = response.body();
+    return isNull(body) || body.length() == 0 ? null : body.toJsonObject();
   }
 
-  public void verifyResponse(org.folio.rest.tools.client.Response response) {
-    if (!org.folio.rest.tools.client.Response.isSuccess(response.getCode())) {
-      throw new CompletionException(new HttpException(response.getCode(), response.getError()
-        .getString(ERROR_MESSAGE)));
+  public <T> T verifyAndDecodeBody(HttpResponse<Buffer> response, Class<T> type) {
+    if (!isSuccess(response.statusCode())) {
+      throw new HttpException(response.statusCode(), errorMessage(response));
     }
+    Buffer body = response.body();
+    return isNull(body) || body.length() == 0 ? null : JsonCodec.decode(body, type);
+  }
+
+  public void verifyResponse(HttpResponse<Buffer> response) {
+    if (!isSuccess(response.statusCode())) {
+      throw new CompletionException(new HttpException(response.statusCode(), errorMessage(response)));
+    }
+  }
+
+  /**
+   * Storage rejects an update with 409 when the record's _version no longer matches, which means it was changed since
+   * it was read. The storage's plain text message is replaced by an error the client can act on.
+   */
+  public static Throwable mapVersionConflict(Throwable t) {
+    return isVersionConflict(t) ? new HttpException(409, RECORD_VERSION_CONFLICT) : t;
+  }
+
+  public static boolean isVersionConflict(Throwable t) {
+    return t instanceof HttpException && ((HttpException) t).getCode() == 409;
   }
 
-  private String verifyAndExtractRecordId(org.folio.rest.tools.client.Response response) {
+  // Storage errors may come as JSON with an errorMessage field, only that field is passed on to the client
+  private String errorMessage(HttpResponse<Buffer> response) {
+    String body = response.bodyAsString();
+    if (Objects.nonNull(body) && body.trim().startsWith("{")) {
+      try {
+        String message = new JsonObject(body).getString(ERROR_MESSAGE);
+        if (Objects.nonNull(message)) {
+          return message;
+        }
+      } catch (DecodeException | ClassCastException e) {
+        logger.debug("Error response is not JSON: {}", e.getMessage());
+      }
+    }
+    return body;
+  }
+
+  private static boolean isSuccess(int statusCode) {
+    return statusCode >= 200 && statusCode < 300;
+  }
+
+  private String verifyAndExtractRecordId(HttpResponse<Buffer> response) {
     JsonObject body = verifyAndExtractBody(response);
     String id;
     if (body != null && !body.isEmpty() && body.containsKey(ID)) {
       id = body.getString(ID);
     } else {
-      String location = response.getHeaders()
-        .get(LOCATION);
+      String location = response.getHeader(LOCATION);
       id = location.substring(location.lastIndexOf('/') + 1);
     }
     return id;
   }
 
+  /**
+   * Fetches the records with the given ids from a storage collection with as few calls as the URL length allows. The ids
+   * are split into chunks whose {@code id==(a or b ...)} query fits in {@code maxQueryLength} characters once encoded,
+   * the chunks are fetched in parallel and the records are returned in the order of the ids. Ids without a record are
+   * left out. Ids must be UUIDs, and at most {@code storage.getByIds.max} of them are accepted, as every chunk is one
+   * storage call in flight.
+   *
+   * @param ids            ids of the records, duplicates are fetched once
+   * @param endpoint       storage collection endpoint
+   * @param collectionName name of the array holding the records in the collection
+   * @param maxQueryLength maximum length of the encoded query of one call
+   * @return records in the order of the ids, or a 400 when an id is not a UUID or there are too many ids
+   */
+  public CompletableFuture<JsonArray> handleGetByIdsRequest(Collection<String> ids, String endpoint, String collectionName,
+      int maxQueryLength, PooledHttpClient httpClient, Map<String, String> okapiHeaders, Logger logger) {
+    Set<String> uniqueIds = new LinkedHashSet<>(ids);
+    if (uniqueIds.size() > maxIdsPerRequest) {
+      return CompletableFuture.failedFuture(new HttpException(400,
+        String.format("At most %d ids can be requested at once, got %d", maxIdsPerRequest, uniqueIds.size())));
+    }
+    String invalid = StreamEx.of(uniqueIds).findFirst(id -> !UUID_PATTERN.matcher(id).matches()).orElse(null);
+    if (Objects.nonNull(invalid)) {
+      return CompletableFuture.failedFuture(new HttpException(400, String.format("Id '%s' is not a UUID", invalid)));
+    }
+    List<CompletableFuture<JsonObject>> chunks = StreamEx.of(chunkIds(uniqueIds, maxQueryLength, logger))
+      .map(chunk -> handleGetRequest(endpoint + "?limit=" + chunk.size() + buildQuery(convertIdsToCqlQuery(chunk), logger),
+        httpClient, okapiHeaders, logger))
+      .toList();
+
+    return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]))
+      .thenApply(v -> {
+        Map<String, JsonObject> byId = new HashMap<>();
+        chunks.forEach(chunk -> chunk.join().getJsonArray(collectionName, new JsonArray())
+          .forEach(record -> byId.put(((JsonObject) record).getString(ID), (JsonObject) record)));
+        JsonArray records = new JsonArray();
+        uniqueIds.stream()
+          .map(byId::get)
+          .filter(Objects::nonNull)
+          .forEach(records::add);
+        return records;
+      });
+  }
+
+  static List<List<String>> chunkIds(Collection<String> ids, int maxQueryLength, Logger logger) {
+    int emptyQueryLength = encodeQuery(convertIdsToCqlQuery(Collections.emptyList()), logger).length();
+    int separatorLength = encodeQuery(" or ", logger).length();
+    List<List<String>> chunks = new ArrayList<>();
+    List<String> chunk = new ArrayList<>();
+    int queryLength = emptyQueryLength;
+    for (String id : ids) {
+      int idLength = encodeQuery(id, logger).length() + (chunk.isEmpty() ? 0 : separatorLength);
+      if (!chunk.isEmpty() && queryLength + idLength > maxQueryLength) {
+        chunks.add(chunk);
+        chunk = new ArrayList<>();
+        queryLength = emptyQueryLength;
+        idLength -= separatorLength;
+      }
+      chunk.add(id);
+      queryLength += idLength;
+    }
+    if (!chunk.isEmpty()) {
+      chunks.add(chunk);
+    }
+    return chunks;
+  }
+
   public static String combineCqlExpressions(String operator, String... expressions) {
     if (ArrayUtils.isEmpty(expressions)) {
       return EMPTY;
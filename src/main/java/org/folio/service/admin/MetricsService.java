@@ -0,0 +1,55 @@
+package org.folio.service.admin;
+
+import io.vertx.core.json.JsonObject;
+import org.folio.client.ConnectorGuard;
+import org.folio.client.OutboundHttpClient;
+import org.folio.client.OutboundMetrics;
+import org.folio.service.illsupplingagency.IllSupplyingAgencyService;
+import org.folio.service.sarequest.SupplierDispatchQueue;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Set;
+
+/**
+ * Collects the module's metrics for scraping: the outbound call histograms and in-flight gauges, the state of each
+ * connector's circuit breaker and bulkhead, followed by the counters the caches, queues and clients keep about themselves.
+ */
+public class MetricsService {
+
+  // Stats that only ever grow, written out as Prometheus counters
+  private static final Set<String> COUNTERS = Set.of("hits", "misses", "evictions", "prefetches", "requests", "failures");
+
+  @Autowired
+  private IllSupplyingAgencyService illSupplyingAgencyService;
+  @Autowired
+  private SupplierDispatchQueue supplierDispatchQueue;
+  @Autowired
+  private OutboundHttpClient outboundHttpClient;
+  @Autowired
+  private ConnectorGuard connectorGuard;
+
+  /**
+   * @return all metrics in the Prometheus text format
+   */
+  public String scrape() {
+    StringBuilder out = new StringBuilder();
+    OutboundMetrics.getInstance().scrape(out);
+    connectorGuard.scrape(out);
+    appendStats("ill_ra_search_cache", illSupplyingAgencyService.getSearchCacheStats(), out);
+    appendStats("ill_ra_supplier_queue", supplierDispatchQueue.getStats(), out);
+    appendStats("ill_ra_outbound_client", outboundHttpClient.getStats(), out);
+    return out.toString();
+  }
+
+  private static void appendStats(String prefix, JsonObject stats, StringBuilder out) {
+    stats.forEach(stat -> {
+      if (stat.getValue() instanceof Number) {
+        boolean counter = COUNTERS.contains(stat.getKey());
+        String name = prefix + "_" + stat.getKey().replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase()
+          + (counter ? "_total" : "");
+        out.append("# TYPE ").append(name).append(counter ? " counter\n" : " gauge\n")
+          .append(name).append(' ').append(stat.getValue()).append('\n');
+      }
+    });
+  }
+}
@@ -0,0 +1,26 @@
+package org.folio.service.admin;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.folio.rest.jaxrs.model.TraceSpans;
+import org.folio.tracing.Tracer;
+
+import static org.folio.config.Constants.TOTAL_RECORDS;
+
+/**
+ * Gives access to the spans the {@link Tracer} keeps in memory.
+ */
+public class TraceService {
+
+  /**
+   * @param traceId trace to return the spans of, all kept spans of the tenant when null
+   * @param tenant  tenant of the caller, the traces of other tenants are left out
+   */
+  public TraceSpans getSpans(String traceId, String tenant) {
+    JsonArray spans = Tracer.getInstance().getExporter().getSpans(traceId, tenant);
+    return new JsonObject()
+      .put("spans", spans)
+      .put(TOTAL_RECORDS, spans.size())
+      .mapTo(TraceSpans.class);
+  }
+}
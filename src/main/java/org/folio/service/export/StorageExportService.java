@@ -0,0 +1,98 @@
+package org.folio.service.export;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.folio.client.PooledHttpClient;
+import org.folio.exception.HttpException;
+import org.folio.service.BaseService;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+import static org.folio.config.Constants.EXPORT_PAGE_SIZE;
+import static org.folio.config.Constants.ID;
+import static org.folio.config.Constants.STORAGE_SERVICE;
+
+/**
+ * Streams a whole storage collection to an HTTP response as JSON Lines, one record per line. The collection is read in
+ * pages ordered by id, each page starting after the last id of the previous one, so deep pages cost the same as the first
+ * one. Only one page is held at a time and the next page is not read until the response has room for it. As the pages
+ * are ordered by id, a query that sorts the records is rejected.
+ */
+public class StorageExportService extends BaseService {
+
+  private static final String REQUESTS = "requests";
+  private static final String SUBMISSIONS = "submissions";
+  private static final String ALL_RECORDS = "cql.allRecords=1";
+  private static final String SORT_BY_ID = " sortBy id";
+  private static final Pattern SORT_BY = Pattern.compile("\\bsortBy\\b", Pattern.CASE_INSENSITIVE);
+
+  private final int pageSize = Integer.getInteger("export.pageSize", EXPORT_PAGE_SIZE);
+
+  public CompletableFuture<Long> exportRequests(String query, HttpServerResponse response, Map<String, String> headers) {
+    return export(STORAGE_SERVICE + REQUESTS, REQUESTS, query, response, headers);
+  }
+
+  public CompletableFuture<Long> exportSubmissions(String query, HttpServerResponse response, Map<String, String> headers) {
+    return export(STORAGE_SERVICE + SUBMISSIONS, SUBMISSIONS, query, response, headers);
+  }
+
+  /**
+   * @return number of records written, or a 400 when the query sorts the records. The response is not ended, that is
+   * left to the caller
+   */
+  private CompletableFuture<Long> export(String endpoint, String collectionName, String query, HttpServerResponse response,
+      Map<String, String> headers) {
+    if (!isEmpty(query) && SORT_BY.matcher(query).find()) {
+      return CompletableFuture.failedFuture(
+        new HttpException(400, "Exports are ordered by id, the query must not contain sortBy"));
+    }
+    PooledHttpClient client = getHttpClient(headers);
+    return exportPage(endpoint, collectionName, query, null, 0, client, response, headers);
+  }
+
+  private CompletableFuture<Long> exportPage(String endpoint, String collectionName, String query, String afterId, long written,
+      PooledHttpClient client, HttpServerResponse response, Map<String, String> headers) {
+    if (response.closed()) {
+      logger.info("Export of {} stopped after {} records, the client went away", collectionName, written);
+      return CompletableFuture.completedFuture(written);
+    }
+    String pageQuery = isEmpty(afterId)
+      ? (isEmpty(query) ? ALL_RECORDS : query)
+      : combineCqlExpressions("and", query, ID + " > \"" + afterId + "\"");
+    String pageEndpoint = endpoint + "?limit=" + pageSize + buildQuery(pageQuery + SORT_BY_ID, logger);
+
+    return handleGetRequest(pageEndpoint, client, headers, logger)
+      .thenCompose(page -> {
+        JsonArray records = page.getJsonArray(collectionName, new JsonArray());
+        String lastId = null;
+        for (int i = 0; i < records.size(); i++) {
+          JsonObject record = records.getJsonObject(i);
+          response.write(Buffer.buffer(record.encode()).appendString("\n"));
+          lastId = record.getString(ID);
+        }
+        long total = written + records.size();
+        if (records.size() < pageSize || isEmpty(lastId)) {
+          return CompletableFuture.completedFuture(total);
+        }
+        String nextAfterId = lastId;
+        return awaitDrain(response)
+          .thenCompose(v -> exportPage(endpoint, collectionName, query, nextAfterId, total, client, response, headers));
+      });
+  }
+
+  // Holds the next page back until the client has read what was written so far
+  private static CompletableFuture<Void> awaitDrain(HttpServerResponse response) {
+    if (!response.writeQueueFull()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    CompletableFuture<Void> drained = new CompletableFuture<>();
+    response.drainHandler(v -> drained.complete(null));
+    response.closeHandler(v -> drained.complete(null));
+    return drained;
+  }
+}
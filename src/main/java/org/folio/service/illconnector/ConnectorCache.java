@@ -0,0 +1,122 @@
+package org.folio.service.illconnector;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Per-tenant, per-interface cache of connector module IDs. Entries younger than the TTL are served as they are, entries
+ * within the stale window are served while a single background load refreshes them, and anything older is loaded before
+ * being returned.
+ */
+public class ConnectorCache {
+
+  private static final Logger logger = LogManager.getLogger(ConnectorCache.class);
+
+  private final long ttlMillis;
+  private final long staleMillis;
+  private final Map<String, Map<String, Entry>> entries = new ConcurrentHashMap<>();
+  private final Map<String, CompletableFuture<List<String>>> loading = new ConcurrentHashMap<>();
+  // Bumped on every invalidation of the tenant, a load started before it must not put its result back
+  private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+  public ConnectorCache(long ttlSeconds, long staleSeconds) {
+    this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+    this.staleMillis = TimeUnit.SECONDS.toMillis(staleSeconds);
+  }
+
+  /**
+   * @param tenant     tenant the connectors are enabled for
+   * @param supporting interface the connectors provide
+   * @param loader     loads the connector list from Okapi when the cached one is missing or expired
+   * @return cached or freshly loaded list of connector module IDs
+   */
+  public CompletableFuture<List<String>> get(String tenant, String supporting, Supplier<CompletableFuture<List<String>>> loader) {
+    Entry entry = entries.getOrDefault(tenant, Map.of()).get(supporting);
+    if (Objects.nonNull(entry)) {
+      long age = System.currentTimeMillis() - entry.loadedAt;
+      if (age < ttlMillis) {
+        return CompletableFuture.completedFuture(entry.connectors);
+      }
+      if (age < ttlMillis + staleMillis) {
+        load(tenant, supporting, loader).exceptionally(t -> {
+          logger.warn("Background refresh of '{}' connectors for tenant {} failed, serving stale list", supporting, tenant, t);
+          return null;
+        });
+        return CompletableFuture.completedFuture(entry.connectors);
+      }
+    }
+    return load(tenant, supporting, loader);
+  }
+
+  /**
+   * Drops every cached connector list of the tenant.
+   */
+  public void invalidate(String tenant) {
+    generation(tenant).incrementAndGet();
+    loading.keySet().removeIf(key -> key.startsWith(tenant + ":"));
+    entries.remove(tenant);
+  }
+
+  public void invalidateAll() {
+    generations.values().forEach(AtomicLong::incrementAndGet);
+    loading.clear();
+    entries.clear();
+  }
+
+  private CompletableFuture<List<String>> load(String tenant, String supporting, Supplier<CompletableFuture<List<String>>> loader) {
+    String key = tenant + ":" + supporting;
+    CompletableFuture<List<String>> promise = new CompletableFuture<>();
+    CompletableFuture<List<String>> existing = loading.putIfAbsent(key, promise);
+    if (Objects.nonNull(existing)) {
+      return existing;
+    }
+    AtomicLong generation = generation(tenant);
+    long startedAt = generation.get();
+    CompletableFuture<List<String>> loaded;
+    try {
+      loaded = loader.get();
+    } catch (Exception e) {
+      loaded = CompletableFuture.failedFuture(e);
+    }
+    loaded.whenComplete((connectors, t) -> {
+      loading.remove(key, promise);
+      if (Objects.nonNull(t)) {
+        promise.completeExceptionally(t);
+      } else {
+        List<String> result = List.copyOf(connectors);
+        Map<String, Entry> tenantEntries = entries.computeIfAbsent(tenant, k -> new ConcurrentHashMap<>());
+        Entry entry = new Entry(result, System.currentTimeMillis());
+        tenantEntries.put(supporting, entry);
+        if (generation.get() != startedAt) {
+          // Invalidated while loading, the result still answers this call but is not kept
+          tenantEntries.remove(supporting, entry);
+        }
+        promise.complete(result);
+      }
+    });
+    return promise;
+  }
+
+  private AtomicLong generation(String tenant) {
+    return generations.computeIfAbsent(tenant, k -> new AtomicLong());
+  }
+
+  private static class Entry {
+    private final List<String> connectors;
+    private final long loadedAt;
+
+    private Entry(List<String> connectors, long loadedAt) {
+      this.connectors = connectors;
+      this.loadedAt = loadedAt;
+    }
+  }
+}
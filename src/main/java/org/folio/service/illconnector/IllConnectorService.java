@@ -2,33 +2,59 @@ package org.folio.service.illconnector;
 
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import org.folio.client.OutboundHttpClient;
 import org.folio.service.BaseService;
 import org.folio.common.OkapiParams;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 
+import static org.folio.config.Constants.CONNECTORS_CACHE_STALE;
+import static org.folio.config.Constants.CONNECTORS_CACHE_TTL;
+import static org.folio.tracing.Tracer.TRACEPARENT;
+
 public class IllConnectorService extends BaseService {
 
+  @Autowired
+  private OutboundHttpClient outboundHttpClient;
+
+  // The module list only changes when modules are enabled for a tenant, so it is
+  // cached rather than fetched from the Okapi proxy on every request
+  private final ConnectorCache connectorCache = new ConnectorCache(
+    Long.getLong("connectors.cache.ttl", CONNECTORS_CACHE_TTL),
+    Long.getLong("connectors.cache.stale", CONNECTORS_CACHE_STALE));
+
   // Return a CompletableFuture containing a list of available connectors supporting a
   // given interface
   public CompletableFuture<ArrayList<String>> getConnectorsSupporting(String supporting, Map<String, String> headers) {
     OkapiParams okapiParams = new OkapiParams(headers);
-    HttpClient client = HttpClient.newBuilder().build();
+    return connectorCache.get(okapiParams.getTenant(), supporting, () -> fetchConnectorsSupporting(supporting, okapiParams, headers.get(TRACEPARENT)))
+      .thenApply(ArrayList::new);
+  }
+
+  // Drop the cached connector lists of the tenant, the next lookup goes to Okapi
+  public void invalidateConnectors(Map<String, String> headers) {
+    connectorCache.invalidate(new OkapiParams(headers).getTenant());
+  }
 
+  // The lookup is shared by the requests that miss the cache at the same time, it is traced as part of the first of them
+  private CompletableFuture<List<String>> fetchConnectorsSupporting(String supporting, OkapiParams okapiParams,
+      String traceparent) {
     String endpoint = okapiParams.getUrl() + "/_/proxy/tenants/" + okapiParams.getTenant() + "/modules?provide=" + supporting;
-    HttpRequest request = HttpRequest.newBuilder()
+    HttpRequest.Builder request = HttpRequest.newBuilder()
       .uri(URI.create(endpoint))
-      .GET()
-      .build();
+      .GET();
+    if (Objects.nonNull(traceparent)) {
+      request.header(TRACEPARENT, traceparent);
+    }
 
-    return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+    return outboundHttpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
       .thenApply(response -> {
-        ArrayList<String> modules = new ArrayList<>();
+        List<String> modules = new ArrayList<>();
         JsonArray jsonArray = new JsonArray(response.body());
         for(int i=0; i < jsonArray.size(); i++ ) {
           JsonObject obj = jsonArray.getJsonObject(i);
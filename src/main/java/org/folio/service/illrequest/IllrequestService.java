@@ -1,5 +1,6 @@
 package org.folio.service.illrequest;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -43,6 +44,16 @@ public interface IllrequestService {
    */
   CompletableFuture<Requests> getRequests(int offset, int limit, String lang, String query, Context context, Map<String, String> headers);
 
+  /**
+   * This method returns the {@link Requests} with the given IDs
+   *
+   * @param ids     requests' ids
+   * @param context Vert.X context
+   * @param headers OKAPI headers
+   * @return collection of requests{@link Requests} in the order of the ids, without the ids that were not found
+   */
+  CompletableFuture<Requests> getRequestsByIds(List<String> ids, Context context, Map<String, String> headers);
+
   /**
    * This method updates {@link Request} by ID
    *
@@ -54,6 +65,17 @@ public interface IllrequestService {
    */
   CompletableFuture<Void> updateRequestById(String id, Request updatedRequest, Context context, Map<String, String> headers);
 
+  /**
+   * This method sets the supplier's request ID on a {@link Request}, leaving the rest of the request as it is
+   *
+   * @param id                  updated request's id
+   * @param supplierRequestId   supplier's request ID
+   * @param context             Vert.X context
+   * @param headers             OKAPI headers
+   * @return void
+   */
+  CompletableFuture<Void> updateSupplierRequestId(String id, String supplierRequestId, Context context, Map<String, String> headers);
+
   /**
    * This method deletes {@link Request} by ID
    *
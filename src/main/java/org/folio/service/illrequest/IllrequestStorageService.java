@@ -2,33 +2,41 @@ package org.folio.service.illrequest;
 
 import io.vertx.core.Context;
 import io.vertx.core.json.JsonObject;
+import org.folio.client.PooledHttpClient;
 import org.folio.exception.HttpException;
 import org.folio.rest.annotations.Validate;
 import org.folio.rest.jaxrs.model.Request;
 import org.folio.rest.jaxrs.model.Requests;
-import org.folio.rest.tools.client.interfaces.HttpClientInterface;
 import org.folio.service.BaseService;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 import static org.folio.exception.ErrorCodes.MISMATCH_BETWEEN_ID_IN_PATH_AND_BODY;
+import static org.folio.config.Constants.STORAGE_QUERY_MAX_LENGTH;
 import static org.folio.config.Constants.STORAGE_SERVICE;
+import static org.folio.config.Constants.TOTAL_RECORDS;
+import static org.folio.config.Constants.UPDATE_CONFLICT_RETRIES;
 
 public class IllrequestStorageService extends BaseService implements IllrequestService {
 
+  private static final String REQUESTS = "requests";
+
+  private final int maxQueryLength = Integer.getInteger("storage.query.maxLength", STORAGE_QUERY_MAX_LENGTH);
+  private final int conflictRetries = Integer.getInteger("request.update.conflictRetries", UPDATE_CONFLICT_RETRIES);
+
   @Override
   @Validate
   public CompletableFuture<Request> createRequest(Request request, Context context, Map<String, String> headers) {
-    HttpClientInterface client = getHttpClient(headers);
-    return handlePostRequest(JsonObject.mapFrom(request),  STORAGE_SERVICE + "requests", client, context, headers, logger)
-      .thenApply(id -> JsonObject.mapFrom(request.withId(id))
-        .mapTo(Request.class))
+    PooledHttpClient client = getHttpClient(headers);
+    return handlePostRequest(request, STORAGE_SERVICE + "requests", client, context, headers, logger)
+      .thenApply(request::withId)
       .handle((req, t) -> {
-        client.closeClient();
         if (Objects.nonNull(t)) {
           throw new CompletionException(t.getCause());
         }
@@ -40,12 +48,10 @@ public class IllrequestStorageService extends BaseService implements IllrequestS
   @Validate
   public CompletableFuture<Request> getRequestById(String id, Context context, Map<String, String> headers) {
     CompletableFuture<Request> future = new CompletableFuture<>();
-    HttpClientInterface client = getHttpClient(headers);
+    PooledHttpClient client = getHttpClient(headers);
     String endpoint = STORAGE_SERVICE + "requests/" + id;
-    handleGetRequest(endpoint, client, headers, logger)
-      .thenApply(json -> json.mapTo(Request.class))
+    handleGetRequest(endpoint, Request.class, client, headers, logger)
       .handle((request, t) -> {
-        client.closeClient();
         if (Objects.nonNull(t)) {
           future.completeExceptionally(t.getCause());
         } else {
@@ -60,12 +66,10 @@ public class IllrequestStorageService extends BaseService implements IllrequestS
   @Validate
   public CompletableFuture<Requests> getRequests(int offset, int limit, String lang, String query, Context context, Map<String, String> headers) {
     CompletableFuture<Requests> future = new CompletableFuture<>();
-    HttpClientInterface client = getHttpClient(headers);
+    PooledHttpClient client = getHttpClient(headers);
     String endpoint = STORAGE_SERVICE + "requests";
-    handleGetRequest(endpoint, client, headers, logger)
-      .thenApply(json -> json.mapTo(Requests.class))
+    handleGetRequest(endpoint, Requests.class, client, headers, logger)
       .handle((collection, t) -> {
-        client.closeClient();
         if (Objects.nonNull(t)) {
           future.completeExceptionally(t.getCause());
         } else {
@@ -76,45 +80,74 @@ public class IllrequestStorageService extends BaseService implements IllrequestS
     return future;
   }
 
+  @Override
+  public CompletableFuture<Requests> getRequestsByIds(List<String> ids, Context context, Map<String, String> headers) {
+    PooledHttpClient client = getHttpClient(headers);
+    return handleGetByIdsRequest(ids, STORAGE_SERVICE + "requests", REQUESTS, maxQueryLength, client, headers, logger)
+      .thenApply(requests -> new JsonObject()
+        .put(REQUESTS, requests)
+        .put(TOTAL_RECORDS, requests.size())
+        .mapTo(Requests.class));
+  }
+
   @Override
   @Validate
   public CompletableFuture<Void> updateRequestById(String id, Request updatedRequest, Context context, Map<String, String> headers) {
-    CompletableFuture<Void> future = new CompletableFuture<>();
     if (isEmpty(updatedRequest.getId())) {
       updatedRequest.setId(id);
     } else if (!id.equals(updatedRequest.getId())) {
-      future.completeExceptionally(new HttpException(422, MISMATCH_BETWEEN_ID_IN_PATH_AND_BODY.toError()));
-      return future;
+      return CompletableFuture.failedFuture(new HttpException(422, MISMATCH_BETWEEN_ID_IN_PATH_AND_BODY.toError()));
     }
-    HttpClientInterface client = getHttpClient(headers);
+    // The storage answers 404 for a missing record and 409 when the record's _version does not match, so the
+    // record is not read first
+    PooledHttpClient client = getHttpClient(headers);
     String endpoint = STORAGE_SERVICE + "requests/" + id;
-    handleGetRequest(endpoint, client, headers, logger)
-      .thenApply(existingRequestJson -> existingRequestJson.mapTo(Request.class))
-      .thenAccept(ok -> handlePutRequest(endpoint, JsonObject.mapFrom(updatedRequest), client, headers, logger)
-        .handle((req, t) -> {
-          client.closeClient();
-          if (Objects.nonNull(t)) {
-            future.completeExceptionally(t);
-          } else {
-            future.complete(null);
-          }
-          return null;
-        }))
-    .exceptionally(t -> {
-      future.completeExceptionally(t.getCause());
-      return null;
-    });
-    return future;
+    return handlePutRequest(endpoint, updatedRequest, client, headers, logger)
+      .handle((req, t) -> {
+        if (Objects.nonNull(t)) {
+          throw new CompletionException(mapVersionConflict(t.getCause()));
+        }
+        return null;
+      });
+  }
+
+  @Override
+  public CompletableFuture<Void> updateSupplierRequestId(String id, String supplierRequestId, Context context, Map<String, String> headers) {
+    return updateSupplierRequestId(id, supplierRequestId, context, headers, 0);
+  }
+
+  // Read, change and write back with the version that was read. When another update gets in between, the
+  // change is applied again on top of it
+  private CompletableFuture<Void> updateSupplierRequestId(String id, String supplierRequestId, Context context,
+      Map<String, String> headers, int conflicts) {
+    return getRequestById(id, context, headers)
+      .thenCompose(request -> {
+        if (supplierRequestId.equals(request.getSupplierRequestId())) {
+          return CompletableFuture.completedFuture(null);
+        }
+        return updateRequestById(id, request.withSupplierRequestId(supplierRequestId), context, headers);
+      })
+      .handle((v, t) -> {
+        if (Objects.isNull(t)) {
+          return CompletableFuture.<Void>completedFuture(null);
+        }
+        Throwable cause = t instanceof CompletionException ? t.getCause() : t;
+        if (isVersionConflict(cause) && conflicts < conflictRetries) {
+          logger.debug("Request {} was changed concurrently, applying supplier request ID again", id);
+          return updateSupplierRequestId(id, supplierRequestId, context, headers, conflicts + 1);
+        }
+        return CompletableFuture.<Void>failedFuture(cause);
+      })
+      .thenCompose(Function.identity());
   }
 
   @Override
   @Validate
   public CompletableFuture<Void> deleteRequestById(String id, Context context, Map<String, String> headers) {
-    HttpClientInterface client = getHttpClient(headers);
+    PooledHttpClient client = getHttpClient(headers);
     String endpoint = STORAGE_SERVICE + "requests/" + id;
     return handleDeleteRequest(endpoint, client, headers, logger)
       .handle((req, t) -> {
-        client.closeClient();
         if (Objects.nonNull(t)) {
          throw new CompletionException(t.getCause());
         }
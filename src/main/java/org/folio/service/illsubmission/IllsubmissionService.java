@@ -5,6 +5,7 @@ import org.folio.rest.jaxrs.model.Submission;
 import org.folio.rest.jaxrs.model.Submissions;
 import org.folio.rest.jaxrs.model.Requests;
 
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -43,6 +44,16 @@ public interface IllsubmissionService {
    */
   CompletableFuture<Submissions> getSubmissions(int offset, int limit, String lang, String query, Context context, Map<String, String> headers);
 
+  /**
+   * This method returns the {@link Submissions} with the given IDs
+   *
+   * @param ids     submissions' ids
+   * @param context Vert.X context
+   * @param headers OKAPI headers
+   * @return collection of submissions{@link Submissions} in the order of the ids, without the ids that were not found
+   */
+  CompletableFuture<Submissions> getSubmissionsByIds(List<String> ids, Context context, Map<String, String> headers);
+
   /**
    * This method updates {@link Submission} by ID
    *
@@ -3,36 +3,40 @@ package org.folio.service.illsubmission;
 import io.vertx.core.Context;
 import io.vertx.core.json.JsonObject;
 import org.apache.commons.lang3.StringUtils;
+import org.folio.client.PooledHttpClient;
 import org.folio.exception.HttpException;
 import org.folio.rest.annotations.Validate;
 import org.folio.rest.jaxrs.model.Requests;
 import org.folio.rest.jaxrs.model.Submission;
 import org.folio.rest.jaxrs.model.Submissions;
-import org.folio.rest.tools.client.interfaces.HttpClientInterface;
 import org.folio.service.BaseService;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 
 import static org.apache.commons.lang3.StringUtils.isEmpty;
+import static org.folio.config.Constants.STORAGE_QUERY_MAX_LENGTH;
+import static org.folio.config.Constants.TOTAL_RECORDS;
 import static org.folio.exception.ErrorCodes.MISMATCH_BETWEEN_ID_IN_PATH_AND_BODY;
 
 public class IllsubmissionStorageService extends BaseService implements IllsubmissionService {
 
   private static final String STORAGE_SERVICE = "/ill-ra-storage/submissions";
   private static final String SEARCH_PARAMS = "?limit=%s&offset=%s%s&lang=%s";
+  private static final String SUBMISSIONS = "submissions";
+
+  private final int maxQueryLength = Integer.getInteger("storage.query.maxLength", STORAGE_QUERY_MAX_LENGTH);
 
   @Override
   @Validate
   public CompletableFuture<Submission> createSubmission(Submission submission, Context context, Map<String, String> headers) {
-    HttpClientInterface client = getHttpClient(headers);
-    return handlePostRequest(JsonObject.mapFrom(submission), STORAGE_SERVICE, client, context, headers, logger)
-      .thenApply(id -> JsonObject.mapFrom(submission.withId(id))
-        .mapTo(Submission.class))
+    PooledHttpClient client = getHttpClient(headers);
+    return handlePostRequest(submission, STORAGE_SERVICE, client, context, headers, logger)
+      .thenApply(submission::withId)
       .handle((req, t) -> {
-        client.closeClient();
         if (Objects.nonNull(t)) {
           throw new CompletionException(t.getCause());
         }
@@ -44,12 +48,10 @@ public class IllsubmissionStorageService extends BaseService implements Illsubmi
   @Validate
   public CompletableFuture<Submission> getSubmissionById(String id, Context context, Map<String, String> headers) {
     CompletableFuture<Submission> future = new CompletableFuture<>();
-    HttpClientInterface client = getHttpClient(headers);
+    PooledHttpClient client = getHttpClient(headers);
     String endpoint = STORAGE_SERVICE + "/" + id;
-    handleGetRequest(endpoint, client, headers, logger)
-      .thenApply(json -> json.mapTo(Submission.class))
+    handleGetRequest(endpoint, Submission.class, client, headers, logger)
       .handle((submission, t) -> {
-        client.closeClient();
         if (Objects.nonNull(t)) {
           future.completeExceptionally(t.getCause());
         } else {
@@ -64,14 +66,12 @@ public class IllsubmissionStorageService extends BaseService implements Illsubmi
   @Validate
   public CompletableFuture<Submissions> getSubmissions(int offset, int limit, String query, String lang, Context context, Map<String, String> headers) {
     CompletableFuture<Submissions> future = new CompletableFuture<>();
-    HttpClientInterface client = getHttpClient(headers);
+    PooledHttpClient client = getHttpClient(headers);
     String endpoint = StringUtils.isEmpty(query) ?
       String.format(STORAGE_SERVICE + SEARCH_PARAMS, limit, offset, buildQuery(query, logger), lang) :
       String.format(STORAGE_SERVICE + SEARCH_PARAMS, limit, offset, buildQuery(combineCqlExpressions("and", query), logger), lang);
-    handleGetRequest(endpoint, client, headers, logger)
-      .thenApply(json -> json.mapTo(Submissions.class))
+    handleGetRequest(endpoint, Submissions.class, client, headers, logger)
       .handle((collection, t) -> {
-        client.closeClient();
         if (Objects.nonNull(t)) {
           future.completeExceptionally(t.getCause());
         } else {
@@ -82,44 +82,43 @@ public class IllsubmissionStorageService extends BaseService implements Illsubmi
     return future;
   }
 
+  @Override
+  public CompletableFuture<Submissions> getSubmissionsByIds(List<String> ids, Context context, Map<String, String> headers) {
+    PooledHttpClient client = getHttpClient(headers);
+    return handleGetByIdsRequest(ids, STORAGE_SERVICE, SUBMISSIONS, maxQueryLength, client, headers, logger)
+      .thenApply(submissions -> new JsonObject()
+        .put(SUBMISSIONS, submissions)
+        .put(TOTAL_RECORDS, submissions.size())
+        .mapTo(Submissions.class));
+  }
+
   @Override
   @Validate
   public CompletableFuture<Void> updateSubmissionById(String id, Submission updatedSubmission, Context context, Map<String, String> headers) {
-    CompletableFuture<Void> future = new CompletableFuture<>();
     if (isEmpty(updatedSubmission.getId())) {
       updatedSubmission.setId(id);
     } else if (!id.equals(updatedSubmission.getId())) {
-      future.completeExceptionally(new HttpException(422, MISMATCH_BETWEEN_ID_IN_PATH_AND_BODY.toError()));
-      return future;
+      return CompletableFuture.failedFuture(new HttpException(422, MISMATCH_BETWEEN_ID_IN_PATH_AND_BODY.toError()));
     }
-    HttpClientInterface client = getHttpClient(headers);
+    // The storage answers 404 for a missing record and 409 when the record's _version does not match, so the
+    // record is not read first
+    PooledHttpClient client = getHttpClient(headers);
     String endpoint = STORAGE_SERVICE + "/" + id;
-    handleGetRequest(endpoint, client, headers, logger)
-      .thenApply(existingSubmissionJson -> existingSubmissionJson.mapTo(Submission.class))
-      .thenAccept(ok -> handlePutRequest(endpoint, JsonObject.mapFrom(updatedSubmission), client, headers, logger)
-        .handle((req, t) -> {
-          client.closeClient();
-          if (Objects.nonNull(t)) {
-            future.completeExceptionally(t);
-          } else {
-            future.complete(null);
-          }
-          return null;
-        }))
-    .exceptionally(t -> {
-      future.completeExceptionally(t.getCause());
-      return null;
-    });
-    return future;
+    return handlePutRequest(endpoint, updatedSubmission, client, headers, logger)
+      .handle((sub, t) -> {
+        if (Objects.nonNull(t)) {
+          throw new CompletionException(mapVersionConflict(t.getCause()));
+        }
+        return null;
+      });
   }
 
   @Override
   public CompletableFuture<Void> deleteSubmissionById(String id, Context context, Map<String, String> headers) {
-    HttpClientInterface client = getHttpClient(headers);
+    PooledHttpClient client = getHttpClient(headers);
     String endpoint = STORAGE_SERVICE + "/" + id;
     return handleDeleteRequest(endpoint, client, headers, logger)
       .handle((sub, t) -> {
-        client.closeClient();
         if (Objects.nonNull(t)) {
           throw new CompletionException(t.getCause());
         }
@@ -130,12 +129,10 @@ public class IllsubmissionStorageService extends BaseService implements Illsubmi
   @Override
   public CompletableFuture<Requests> getSubmissionRequestsById(String id, Context context, Map<String, String> headers) {
     CompletableFuture<Requests> future = new CompletableFuture<>();
-    HttpClientInterface client = getHttpClient(headers);
+    PooledHttpClient client = getHttpClient(headers);
     String endpoint = STORAGE_SERVICE + "/" + id + "/requests";
-    handleGetRequest(endpoint, client, headers, logger)
-      .thenApply(json -> json.mapTo(Requests.class))
+    handleGetRequest(endpoint, Requests.class, client, headers, logger)
       .handle((requests, t) -> {
-        client.closeClient();
         if (Objects.nonNull(t)) {
           future.completeExceptionally(t.getCause());
         } else {
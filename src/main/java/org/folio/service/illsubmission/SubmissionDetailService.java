@@ -0,0 +1,70 @@
+package org.folio.service.illsubmission;
+
+import io.vertx.core.Context;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.folio.rest.jaxrs.model.Request;
+import org.folio.rest.jaxrs.model.Submission;
+import org.folio.rest.jaxrs.model.SubmissionDetail;
+import org.folio.rest.jaxrs.model.SubmissionStatus;
+import org.folio.service.illsubmissionstatus.IllsubmissionstatusService;
+import org.folio.service.illsupplingagency.IllSupplyingAgencyService;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Builds the document a submission view needs in one go. The submission and its requests are fetched at the same time,
+ * the status follows the submission and comes from the status cache, and the messages of all requests are fetched in
+ * parallel as soon as the requests are known.
+ */
+public class SubmissionDetailService {
+
+  @Autowired
+  private IllsubmissionService illsubmissionService;
+  @Autowired
+  private IllsubmissionstatusService illsubmissionstatusService;
+  @Autowired
+  private IllSupplyingAgencyService illSupplyingAgencyService;
+
+  public CompletableFuture<SubmissionDetail> getSubmissionDetail(String submissionId, Context context, Map<String, String> headers) {
+    CompletableFuture<Submission> submissionFuture = illsubmissionService.getSubmissionById(submissionId, context, headers);
+    CompletableFuture<SubmissionStatus> statusFuture = submissionFuture
+      .thenCompose(submission -> isEmpty(submission.getStatusId())
+        ? CompletableFuture.completedFuture(null)
+        : illsubmissionstatusService.getSubmissionStatusById(submission.getStatusId(), context, headers));
+    CompletableFuture<JsonArray> requestsFuture = illsubmissionService.getSubmissionRequestsById(submissionId, context, headers)
+      .thenCompose(requests -> withMessages(requests.getRequests(), context, headers));
+
+    return CompletableFuture.allOf(statusFuture, requestsFuture)
+      .thenApply(v -> {
+        JsonObject detail = new JsonObject()
+          .put("submission", JsonObject.mapFrom(submissionFuture.join()))
+          .put("requests", requestsFuture.join());
+        SubmissionStatus status = statusFuture.join();
+        if (Objects.nonNull(status)) {
+          detail.put("status", JsonObject.mapFrom(status));
+        }
+        return detail.mapTo(SubmissionDetail.class);
+      });
+  }
+
+  private CompletableFuture<JsonArray> withMessages(List<Request> requests, Context context, Map<String, String> headers) {
+    List<CompletableFuture<JsonObject>> details = requests.stream()
+      .map(request -> illSupplyingAgencyService.getSupplierMessages(request.getId(), context, headers)
+        .thenApply(messages -> new JsonObject()
+          .put("request", JsonObject.mapFrom(request))
+          .put("messages", JsonObject.mapFrom(messages))))
+      .collect(Collectors.toList());
+    return CompletableFuture.allOf(details.toArray(new CompletableFuture[0]))
+      .thenApply(v -> new JsonArray(details.stream()
+        .map(CompletableFuture::join)
+        .collect(Collectors.toList())));
+  }
+}
@@ -62,4 +62,23 @@ public interface IllsubmissionstatusService {
    * @return void completable future
    */
   CompletableFuture<Void> deleteSubmissionStatusById(String id, Context context, Map<String, String> headers);
+
+  /**
+   * This method returns the ID of the {@link SubmissionStatus} new submissions are created with
+   *
+   * @param context Vert.X context
+   * @param headers OKAPI headers
+   * @return ID of the initial submission status, fails with a 500 when the configured status does not exist
+   */
+  CompletableFuture<String> getInitialSubmissionStatusId(Context context, Map<String, String> headers);
+
+  /**
+   * This method looks up the ID of a {@link SubmissionStatus} by its ID or name
+   *
+   * @param idOrName ID or name of the status
+   * @param context  Vert.X context
+   * @param headers  OKAPI headers
+   * @return ID of the status, null when the tenant has no such status
+   */
+  CompletableFuture<String> findSubmissionStatusId(String idOrName, Context context, Map<String, String> headers);
 }
@@ -1,14 +1,20 @@
 package org.folio.service.illsubmissionstatus;
 
 import io.vertx.core.Context;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import org.folio.client.PooledHttpClient;
 import org.folio.exception.HttpException;
 import org.folio.rest.annotations.Validate;
 import org.folio.rest.jaxrs.model.SubmissionStatus;
 import org.folio.rest.jaxrs.model.SubmissionStatuses;
-import org.folio.rest.tools.client.interfaces.HttpClientInterface;
 import org.folio.service.BaseService;
+import static org.folio.config.Constants.INITIAL_SUBMISSION_STATUS_ID;
 import static org.folio.config.Constants.STORAGE_SERVICE;
+import static org.folio.config.Constants.SUBMISSION_STATUS_CACHE_MAX_TENANTS;
+import static org.folio.config.Constants.SUBMISSION_STATUS_CACHE_TTL;
+import static org.folio.config.Constants.SUBMISSION_STATUS_PAGE_SIZE;
+import static org.folio.config.Constants.TOTAL_RECORDS;
 
 import java.util.Map;
 import java.util.Objects;
@@ -16,21 +22,32 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 
 import static org.apache.commons.lang3.StringUtils.isEmpty;
+import static org.folio.exception.ErrorCodes.INITIAL_SUBMISSION_STATUS_NOT_CONFIGURED;
 import static org.folio.exception.ErrorCodes.MISMATCH_BETWEEN_ID_IN_PATH_AND_BODY;
 
 public class IllsubmissionstatusStorageService extends BaseService implements IllsubmissionstatusService {
 
   private static final String storageService = STORAGE_SERVICE + "submission-statuses";
+  private static final String STATUSES = "submissionStatuses";
+  private static final String PAGE_PARAMS = "%s?limit=%d&offset=%d";
+
+  // Statuses are a small reference table, they are cached per tenant and the cache is
+  // invalidated whenever this module changes them
+  private final SubmissionStatusCache statusCache = new SubmissionStatusCache(
+    Integer.getInteger("submission.status.cache.maxTenants", SUBMISSION_STATUS_CACHE_MAX_TENANTS),
+    Long.getLong("submission.status.cache.ttl", SUBMISSION_STATUS_CACHE_TTL));
+  // The ID or name of the status new submissions start in
+  private final String initialStatus = System.getProperty("submission.status.initial", INITIAL_SUBMISSION_STATUS_ID);
+  private final int statusPageSize = Integer.getInteger("submission.status.pageSize", SUBMISSION_STATUS_PAGE_SIZE);
 
   @Override
   @Validate
   public CompletableFuture<SubmissionStatus> createSubmissionStatus(SubmissionStatus status, Context context, Map<String, String> headers) {
-    HttpClientInterface client = getHttpClient(headers);
-    return handlePostRequest(JsonObject.mapFrom(status),  storageService, client, context, headers, logger)
-      .thenApply(id -> JsonObject.mapFrom(status.withId(id))
-        .mapTo(SubmissionStatus.class))
+    PooledHttpClient client = getHttpClient(headers);
+    return handlePostRequest(status, storageService, client, context, headers, logger)
+      .thenApply(status::withId)
       .handle((stat, t) -> {
-        client.closeClient();
+        statusCache.invalidate(getTenantId(headers));
         if (Objects.nonNull(t)) {
           throw new CompletionException(t.getCause());
         }
@@ -41,40 +58,19 @@ public class IllsubmissionstatusStorageService extends BaseService implements Il
   @Override
   @Validate
   public CompletableFuture<SubmissionStatus> getSubmissionStatusById(String id, Context context, Map<String, String> headers) {
-    CompletableFuture<SubmissionStatus> future = new CompletableFuture<>();
-    HttpClientInterface client = getHttpClient(headers);
-    String endpoint = storageService + "/" + id;
-    handleGetRequest(endpoint, client, headers, logger)
-      .thenApply(json -> json.mapTo(SubmissionStatus.class))
-      .handle((stat, t) -> {
-        client.closeClient();
-        if (Objects.nonNull(t)) {
-          future.completeExceptionally(t.getCause());
-        } else {
-          future.complete(stat);
-        }
-        return null;
+    return getCachedStatuses(headers)
+      .thenCompose(statuses -> {
+        SubmissionStatus cached = statuses.getById(id);
+        // Let storage answer for statuses we don't know about, e.g. with a 404
+        return Objects.nonNull(cached) ? CompletableFuture.completedFuture(cached) : fetchSubmissionStatusById(id, headers);
       });
-    return future;
   }
 
   @Override
   @Validate
   public CompletableFuture<SubmissionStatuses> getSubmissionStatuses(int offset, int limit, String lang, Context context, Map<String, String> headers) {
-    CompletableFuture<SubmissionStatuses> future = new CompletableFuture<>();
-    HttpClientInterface client = getHttpClient(headers);
-    handleGetRequest(storageService, client, headers, logger)
-      .thenApply(json -> json.mapTo(SubmissionStatuses.class))
-      .handle((collection, t) -> {
-        client.closeClient();
-        if (Objects.nonNull(t)) {
-          future.completeExceptionally(t.getCause());
-        } else {
-          future.complete(collection);
-        }
-        return null;
-      });
-    return future;
+    return getCachedStatuses(headers)
+      .thenApply(statuses -> statuses.getCollection(offset, limit));
   }
 
   @Override
@@ -87,13 +83,12 @@ public class IllsubmissionstatusStorageService extends BaseService implements Il
       future.completeExceptionally(new HttpException(422, MISMATCH_BETWEEN_ID_IN_PATH_AND_BODY.toError()));
       return future;
     }
-    HttpClientInterface client = getHttpClient(headers);
+    PooledHttpClient client = getHttpClient(headers);
     String endpoint = storageService + "/" + id;
-    handleGetRequest(endpoint, client, headers, logger)
-      .thenApply(existingStatusJson -> existingStatusJson.mapTo(SubmissionStatus.class))
-      .thenAccept(ok -> handlePutRequest(endpoint, JsonObject.mapFrom(updatedStatus), client, headers, logger)
+    handleGetRequest(endpoint, SubmissionStatus.class, client, headers, logger)
+      .thenAccept(ok -> handlePutRequest(endpoint, updatedStatus, client, headers, logger)
         .handle((stat, t) -> {
-          client.closeClient();
+          statusCache.invalidate(getTenantId(headers));
           if (Objects.nonNull(t)) {
             future.completeExceptionally(t);
           } else {
@@ -110,15 +105,85 @@ public class IllsubmissionstatusStorageService extends BaseService implements Il
 
   @Override
   public CompletableFuture<Void> deleteSubmissionStatusById(String id, Context context, Map<String, String> headers) {
-    HttpClientInterface client = getHttpClient(headers);
+    PooledHttpClient client = getHttpClient(headers);
     String endpoint = storageService + "/" + id;
     return handleDeleteRequest(endpoint, client, headers, logger)
       .handle((stat, t) -> {
-        client.closeClient();
+        statusCache.invalidate(getTenantId(headers));
         if (Objects.nonNull(t)) {
           throw new CompletionException(t.getCause());
         }
         return null;
       });
   }
+
+  @Override
+  public CompletableFuture<String> getInitialSubmissionStatusId(Context context, Map<String, String> headers) {
+    return findSubmissionStatusId(initialStatus, context, headers)
+      .thenApply(id -> {
+        if (Objects.isNull(id)) {
+          logger.error("Initial submission status '{}' not found", initialStatus);
+          throw new HttpException(500, INITIAL_SUBMISSION_STATUS_NOT_CONFIGURED.toError()
+            .withAdditionalProperty("submissionStatus", initialStatus));
+        }
+        return id;
+      });
+  }
+
+  @Override
+  public CompletableFuture<String> findSubmissionStatusId(String idOrName, Context context, Map<String, String> headers) {
+    return getCachedStatuses(headers)
+      .thenApply(statuses -> statuses.findId(idOrName));
+  }
+
+  private CompletableFuture<SubmissionStatusCache.TenantStatuses> getCachedStatuses(Map<String, String> headers) {
+    return statusCache.get(getTenantId(headers), () -> fetchSubmissionStatuses(headers));
+  }
+
+  private CompletableFuture<JsonObject> fetchSubmissionStatuses(Map<String, String> headers) {
+    CompletableFuture<JsonObject> future = new CompletableFuture<>();
+    fetchSubmissionStatusPages(0, new JsonArray(), headers)
+      .handle((collection, t) -> {
+        if (Objects.nonNull(t)) {
+          future.completeExceptionally(t.getCause());
+        } else {
+          future.complete(collection);
+        }
+        return null;
+      });
+    return future;
+  }
+
+  // Storage answers with a single page, the pages are read one after another until the whole table is loaded
+  private CompletableFuture<JsonObject> fetchSubmissionStatusPages(int offset, JsonArray statuses, Map<String, String> headers) {
+    PooledHttpClient client = getHttpClient(headers);
+    String endpoint = String.format(PAGE_PARAMS, storageService, statusPageSize, offset);
+    return handleGetRequest(endpoint, client, headers, logger)
+      .thenCompose(page -> {
+        JsonArray records = page.getJsonArray(STATUSES, new JsonArray());
+        statuses.addAll(records);
+        if (records.isEmpty() || statuses.size() >= page.getInteger(TOTAL_RECORDS, statuses.size())) {
+          return CompletableFuture.completedFuture(new JsonObject()
+            .put(STATUSES, statuses)
+            .put(TOTAL_RECORDS, statuses.size()));
+        }
+        return fetchSubmissionStatusPages(offset + records.size(), statuses, headers);
+      });
+  }
+
+  private CompletableFuture<SubmissionStatus> fetchSubmissionStatusById(String id, Map<String, String> headers) {
+    CompletableFuture<SubmissionStatus> future = new CompletableFuture<>();
+    PooledHttpClient client = getHttpClient(headers);
+    String endpoint = storageService + "/" + id;
+    handleGetRequest(endpoint, SubmissionStatus.class, client, headers, logger)
+      .handle((stat, t) -> {
+        if (Objects.nonNull(t)) {
+          future.completeExceptionally(t.getCause());
+        } else {
+          future.complete(stat);
+        }
+        return null;
+      });
+    return future;
+  }
 }
@@ -0,0 +1,138 @@
+package org.folio.service.illsubmissionstatus;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.folio.rest.jaxrs.model.SubmissionStatus;
+import org.folio.rest.jaxrs.model.SubmissionStatuses;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.folio.config.Constants.TOTAL_RECORDS;
+
+/**
+ * Tenant scoped cache of the submission status reference table. The whole table of a tenant is loaded on first use and
+ * kept until it expires, is invalidated or is evicted because more than the configured number of tenants are cached.
+ */
+public class SubmissionStatusCache {
+
+  private static final String STATUSES_FIELD = "submissionStatuses";
+
+  private final long ttlMillis;
+  private final Map<String, TenantStatuses> entries;
+  private final Map<String, CompletableFuture<TenantStatuses>> loading = new ConcurrentHashMap<>();
+  // Bumped on every invalidation of the tenant, a load started before it must not put its result back
+  private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+  public SubmissionStatusCache(int maxTenants, long ttlSeconds) {
+    this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+    this.entries = Collections.synchronizedMap(new LinkedHashMap<String, TenantStatuses>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, TenantStatuses> eldest) {
+        return size() > maxTenants;
+      }
+    });
+  }
+
+  /**
+   * @param tenant tenant the statuses belong to
+   * @param loader loads the whole status collection from storage when it is not cached
+   * @return statuses of the tenant
+   */
+  public CompletableFuture<TenantStatuses> get(String tenant, Supplier<CompletableFuture<JsonObject>> loader) {
+    TenantStatuses cached = entries.get(tenant);
+    if (Objects.nonNull(cached) && System.currentTimeMillis() - cached.loadedAt < ttlMillis) {
+      return CompletableFuture.completedFuture(cached);
+    }
+    CompletableFuture<TenantStatuses> promise = new CompletableFuture<>();
+    CompletableFuture<TenantStatuses> existing = loading.putIfAbsent(tenant, promise);
+    if (Objects.nonNull(existing)) {
+      return existing;
+    }
+    AtomicLong generation = generations.computeIfAbsent(tenant, k -> new AtomicLong());
+    long startedAt = generation.get();
+    CompletableFuture<JsonObject> load;
+    try {
+      load = loader.get();
+    } catch (RuntimeException e) {
+      load = CompletableFuture.failedFuture(e);
+    }
+    load.whenComplete((json, t) -> {
+      loading.remove(tenant, promise);
+      if (Objects.nonNull(t)) {
+        promise.completeExceptionally(t);
+      } else {
+        TenantStatuses statuses = new TenantStatuses(json);
+        entries.put(tenant, statuses);
+        if (generation.get() != startedAt) {
+          // Invalidated while loading, the result still answers this call but is not kept
+          entries.remove(tenant, statuses);
+        }
+        promise.complete(statuses);
+      }
+    });
+    return promise;
+  }
+
+  public void invalidate(String tenant) {
+    generations.computeIfAbsent(tenant, k -> new AtomicLong()).incrementAndGet();
+    loading.remove(tenant);
+    entries.remove(tenant);
+  }
+
+  public static class TenantStatuses {
+    private final Map<String, JsonObject> byId = new LinkedHashMap<>();
+    private final long loadedAt = System.currentTimeMillis();
+
+    private TenantStatuses(JsonObject json) {
+      JsonArray statuses = json.getJsonArray(STATUSES_FIELD, new JsonArray());
+      for (int i = 0; i < statuses.size(); i++) {
+        JsonObject status = statuses.getJsonObject(i);
+        byId.put(status.getString("id"), status);
+      }
+    }
+
+    /**
+     * @return a page of the statuses, built for the caller so that it may be changed freely
+     */
+    public SubmissionStatuses getCollection(int offset, int limit) {
+      JsonArray page = new JsonArray();
+      byId.values().stream()
+        .skip(Math.max(offset, 0))
+        .limit(Math.max(limit, 0))
+        .forEach(status -> page.add(status.copy()));
+      return new JsonObject()
+        .put(STATUSES_FIELD, page)
+        .put(TOTAL_RECORDS, byId.size())
+        .mapTo(SubmissionStatuses.class);
+    }
+
+    public SubmissionStatus getById(String id) {
+      JsonObject status = byId.get(id);
+      return Objects.isNull(status) ? null : status.mapTo(SubmissionStatus.class);
+    }
+
+    /**
+     * @param idOrName id or name of a status
+     * @return id of the first status whose id or name matches, null if there is none
+     */
+    public String findId(String idOrName) {
+      if (byId.containsKey(idOrName)) {
+        return idOrName;
+      }
+      return byId.values()
+        .stream()
+        .filter(status -> idOrName.equalsIgnoreCase(status.getString("name")))
+        .map(status -> status.getString("id"))
+        .findFirst()
+        .orElse(null);
+    }
+  }
+}
@@ -1,36 +1,64 @@
 package org.folio.service.illsupplingagency;
 
 import io.vertx.core.Context;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import org.folio.client.ConnectorGuard;
+import org.folio.client.OutboundHttpClient;
+import org.folio.domain.FederatedSearchResponse;
+import org.folio.exception.HttpException;
+import org.folio.client.PooledHttpClient;
 import org.folio.rest.jaxrs.model.*;
 import org.folio.rest.jaxrs.model.supplying_agency_message_storage.request.SupplyingAgencyMessageStorageRequest;
 import org.folio.rest.jaxrs.model.supplying_agency_message_storage.response.SupplyingAgencyMessageStorageResponse;
-import org.folio.rest.tools.client.interfaces.HttpClientInterface;
 import org.folio.service.BaseService;
 import org.folio.common.OkapiParams;
+import org.springframework.beans.factory.annotation.Autowired;
 
-import java.io.UnsupportedEncodingException;
 import java.net.URI;
-import java.net.URLEncoder;
 import java.net.http.*;
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static org.folio.config.Constants.*;
 
 public class IllSupplyingAgencyService extends BaseService {
 
   private static final String STORAGE_SERVICE = "/ill-ra-storage/";
+  private static final String MODULE_ID = "x-okapi-module-id";
+  // Guards actions sent without a module ID, which Okapi routes to whichever connector provides them
+  private static final String DEFAULT_CONNECTOR = "default";
+
+  @Autowired
+  private OutboundHttpClient outboundHttpClient;
+  @Autowired
+  private ConnectorGuard connectorGuard;
+
+  private final SearchResponseCache searchCache = new SearchResponseCache(
+    Integer.getInteger("search.cache.maxEntries", SEARCH_CACHE_MAX_ENTRIES),
+    Long.getLong("search.cache.ttl", SEARCH_CACHE_TTL));
+  private final boolean prefetchEnabled = Boolean.getBoolean("search.prefetch.enabled");
+  private final int prefetchLimit = Integer.getInteger("search.prefetch.maxPerTenant", SEARCH_PREFETCH_MAX_PER_TENANT);
+  private final Map<String, AtomicInteger> prefetchesInFlight = new ConcurrentHashMap<>();
+  // Batching is off unless sa.message.batch.size is above 1, it needs storage that offers /messages/batch
+  private final int messageBatchSize = Integer.getInteger("sa.message.batch.size", SUPPLIER_MESSAGE_BATCH_SIZE);
+  private final SupplierMessageWriter messageWriter = new SupplierMessageWriter(messageBatchSize,
+    Long.getLong("sa.message.batch.delay", SUPPLIER_MESSAGE_BATCH_DELAY), this::writeSupplierMessages);
+  private final Set<String> bulkUnsupportedTenants = ConcurrentHashMap.newKeySet();
 
   public CompletableFuture<SaRequestResponse> sendSupplierRequest(JsonObject submission, Context context, Map<String, String> headers) {
     OkapiParams okapiParams = new OkapiParams(headers);
-    HttpClient client = HttpClient.newBuilder()
-      .connectTimeout(Duration.ofSeconds(CONNECTOR_CONNECT_TIMEOUT))
-      .build();
     HttpRequest.Builder request = HttpRequest.newBuilder()
       .uri(URI.create(okapiParams.getUrl() + "/action"))
       .timeout(Duration.ofSeconds(CONNECTOR_RESPONSE_TIMEOUT))
@@ -44,20 +72,40 @@ public class IllSupplyingAgencyService extends BaseService {
     request.header("Content-type", "application/json");
     request.header("Accept", "application/json");
 
-    HttpRequest builtRequest = request.build();
     // Send the request, receive the response, convert it into a response object
     // then complete the future with it
-    CompletableFuture<HttpResponse<String>> future = client.sendAsync(builtRequest, HttpResponse.BodyHandlers.ofString());
-    return future.thenApply(apiResponse -> new JsonObject(apiResponse.body()).mapTo(SaRequestResponse.class));
+    String connector = Objects.isNull(headers.get(MODULE_ID)) ? DEFAULT_CONNECTOR : headers.get(MODULE_ID);
+    CompletableFuture<HttpResponse<String>> future = connectorGuard.call(connector,
+      () -> outboundHttpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()),
+      response -> response.statusCode() >= 500);
+    return future.thenApply(apiResponse -> {
+      if (apiResponse.statusCode() < 200 || apiResponse.statusCode() >= 300) {
+        throw new HttpException(apiResponse.statusCode(), apiResponse.body());
+      }
+      return new JsonObject(apiResponse.body()).mapTo(SaRequestResponse.class);
+    });
   }
 
   public CompletableFuture<SupplyingAgencyMessageStorageResponse> storeSupplierMessage(SupplyingAgencyMessageStorageRequest message, String requestId, Context context, Map<String, String> headers) {
-    HttpClientInterface client = getHttpClient(headers);
-    return handlePostRequest(JsonObject.mapFrom(message), STORAGE_SERVICE + "messages", client, context, headers, logger)
+    return storeSupplierMessage(message, null, requestId, context, headers);
+  }
+
+  /**
+   * Stores the message under the given ID, so that storing it again, e.g. on a retry, is rejected by storage instead of
+   * creating a copy.
+   */
+  public CompletableFuture<SupplyingAgencyMessageStorageResponse> storeSupplierMessage(SupplyingAgencyMessageStorageRequest message, String messageId, String requestId, Context context, Map<String, String> headers) {
+    JsonObject json = JsonObject.mapFrom(message);
+    if (Objects.nonNull(messageId)) {
+      json.put(ID, messageId);
+    }
+    CompletableFuture<String> stored = messageBatchSize > 1
+      ? messageWriter.write(json, context, headers)
+      : postSupplierMessage(json, headers);
+    return stored
       .thenApply(id -> JsonObject.mapFrom(message.withMessage(id))
           .mapTo(SupplyingAgencyMessageStorageResponse.class))
       .handle((req, t) -> {
-        client.closeClient();
         if (Objects.nonNull(t)) {
           throw new CompletionException(t.getCause());
         }
@@ -65,14 +113,63 @@ public class IllSupplyingAgencyService extends BaseService {
       });
   }
 
+  // Writes a batch of messages in one storage call. The messages of a batch share tenant, token and user, so the call is
+  // made with the headers of the first. A tenant whose storage does not offer the batch endpoint gets its messages one by
+  // one and is not asked again. A batch that storage rejects otherwise is also written one by one, so that each message
+  // gets its own outcome
+  private List<CompletableFuture<String>> writeSupplierMessages(List<JsonObject> messages, List<Map<String, String>> headers) {
+    String tenant = getTenantId(headers.get(0));
+    if (messages.size() == 1 || bulkUnsupportedTenants.contains(tenant)) {
+      return postSupplierMessages(messages, headers);
+    }
+    PooledHttpClient client = getHttpClient(headers.get(0));
+    JsonObject body = new JsonObject().put("messages", new JsonArray(messages));
+    CompletableFuture<List<CompletableFuture<String>>> written = client.request(HttpMethod.POST, body.toBuffer(),
+        STORAGE_SERVICE + "messages/batch", headers.get(0))
+      .thenApply(response -> {
+        int status = response.statusCode();
+        if (status == 404 || status == 405) {
+          logger.info("Storage for tenant {} does not accept message batches, writing them one by one", tenant);
+          bulkUnsupportedTenants.add(tenant);
+          return postSupplierMessages(messages, headers);
+        }
+        if (status >= 400 && status < 500) {
+          logger.warn("Storage rejected a batch of {} messages with {}, writing them one by one", messages.size(), status);
+          return postSupplierMessages(messages, headers);
+        }
+        return verifyAndExtractBody(response).getJsonArray("messages").stream()
+          .map(stored -> CompletableFuture.completedFuture(((JsonObject) stored).getString(ID)))
+          .collect(Collectors.toList());
+      });
+    List<CompletableFuture<String>> outcomes = new ArrayList<>();
+    for (int i = 0; i < messages.size(); i++) {
+      int index = i;
+      outcomes.add(written.thenCompose(stored -> index < stored.size()
+        ? stored.get(index)
+        : CompletableFuture.failedFuture(new IllegalStateException("Storage returned fewer IDs than messages written"))));
+    }
+    return outcomes;
+  }
+
+  private List<CompletableFuture<String>> postSupplierMessages(List<JsonObject> messages, List<Map<String, String>> headers) {
+    List<CompletableFuture<String>> posts = new ArrayList<>();
+    for (int i = 0; i < messages.size(); i++) {
+      posts.add(postSupplierMessage(messages.get(i), headers.get(i)));
+    }
+    return posts;
+  }
+
+  private CompletableFuture<String> postSupplierMessage(JsonObject message, Map<String, String> headers) {
+    PooledHttpClient client = getHttpClient(headers);
+    return handlePostRequest(message, STORAGE_SERVICE + "messages", client, null, headers, logger);
+  }
+
   public CompletableFuture<Samss> getSupplierMessages(String requestId, Context context, Map<String, String> headers) {
     CompletableFuture<Samss> future = new CompletableFuture<>();
-    HttpClientInterface client = getHttpClient(headers);
+    PooledHttpClient client = getHttpClient(headers);
     String endpoint = STORAGE_SERVICE + "requests/" + requestId + "/messages";
-    handleGetRequest(endpoint, client, headers, logger)
-      .thenApply(json -> json.mapTo(Samss.class))
+    handleGetRequest(endpoint, Samss.class, client, headers, logger)
       .handle((messages, t) -> {
-        client.closeClient();
         if (Objects.nonNull(t)) {
           future.completeExceptionally(t.getCause());
         } else {
@@ -84,24 +181,15 @@ public class IllSupplyingAgencyService extends BaseService {
   }
 
   public CompletableFuture<SearchResponse> sendSearch(String query, String connector, int offset, int limit, Map<String, String> headers) {
-    HttpClientInterface client = getHttpClient(headers);
     CompletableFuture<SearchResponse> future = new CompletableFuture<>();
-
-    // Add a header specifying the connector module ID
-    // that was passed in the querystring
-    headers.put("x-okapi-module-id", connector);
-
-    // URLEncode our search terms before passing
-    String encodedQuery = "";
-    try {
-      encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8.toString());
-    } catch(UnsupportedEncodingException e) {
-      System.out.println(e.getMessage());
-    }
-    handleGetRequest("/ill-connector/search?query=" + encodedQuery + "&offset=" + offset + "&limit=" + limit, client, headers, logger)
-      .thenApply(json -> json.mapTo(SearchResponse.class))
+    searchConnector(query, connector, offset, limit, headers)
+      .thenApply(json -> {
+        if (prefetchEnabled) {
+          prefetchNextPage(query, connector, offset, limit, headers, json);
+        }
+        return json.mapTo(SearchResponse.class);
+      })
       .handle((searchResponse, t) -> {
-        client.closeClient();
         if (Objects.nonNull(t)) {
           future.completeExceptionally(t.getCause());
         }
@@ -109,11 +197,99 @@ public class IllSupplyingAgencyService extends BaseService {
         return null;
       })
       .exceptionally(throwable -> {
-        client.closeClient();
         future.completeExceptionally(throwable);
         return null;
       });
       return future;
   }
 
+  // Send the same search to several connectors at once, each one is given the same
+  // deadline and the responses that arrive in time are merged into one, in connector order
+  public CompletableFuture<JsonObject> sendFederatedSearch(String query, List<String> connectors, int offset, int limit, Map<String, String> headers) {
+    List<CompletableFuture<JsonObject>> searches = connectors.stream()
+      .map(connector -> searchConnector(query, connector, offset, limit, headers))
+      .collect(Collectors.toList());
+
+    return CompletableFuture.allOf(searches.stream()
+        .map(search -> search.handle((json, t) -> null))
+        .toArray(CompletableFuture[]::new))
+      .thenApply(v -> {
+        FederatedSearchResponse federatedResponse = new FederatedSearchResponse();
+        for (int i = 0; i < connectors.size(); i++) {
+          String connector = connectors.get(i);
+          CompletableFuture<JsonObject> search = searches.get(i);
+          if (search.isCompletedExceptionally()) {
+            Throwable t = search.handle((json, e) -> e).join();
+            logger.warn("Search of connector {} failed", connector, t);
+            federatedResponse.withFailure(connector, t);
+          } else {
+            federatedResponse.withResponse(connector, search.join());
+          }
+        }
+        if (!federatedResponse.hasResponses() && !connectors.isEmpty()) {
+          throw new CompletionException(new HttpException(502, "None of the connectors answered the search"));
+        }
+        return federatedResponse.build();
+      });
+  }
+
+  // The next page is almost always requested after the current one, fetch it into the search
+  // cache in the background. The number of prefetches in flight is capped per tenant
+  private void prefetchNextPage(String query, String connector, int offset, int limit, Map<String, String> headers, JsonObject current) {
+    int nextOffset = offset + limit;
+    Object total = current.getValue("totalRecords");
+    String tenant = getTenantId(headers);
+    String key = SearchResponseCache.key(tenant, connector, query, nextOffset, limit);
+    if (limit <= 0 || (total instanceof Number && nextOffset >= ((Number) total).intValue()) || searchCache.contains(key)) {
+      return;
+    }
+    AtomicInteger inFlight = prefetchesInFlight.computeIfAbsent(tenant, t -> new AtomicInteger());
+    if (inFlight.incrementAndGet() > prefetchLimit) {
+      inFlight.decrementAndGet();
+      return;
+    }
+    Map<String, String> prefetchHeaders = new HashMap<>(headers);
+    prefetchHeaders.remove(SEARCH_CACHE_HEADER);
+    searchCache.prefetch(key, () -> fetchSearch(query, connector, nextOffset, limit, prefetchHeaders))
+      .whenComplete((response, t) -> {
+        inFlight.decrementAndGet();
+        if (Objects.nonNull(t)) {
+          logger.debug("Prefetch of {} from connector {} failed", key, connector, t);
+        }
+      });
+  }
+
+  public JsonObject getSearchCacheStats() {
+    return searchCache.getStats();
+  }
+
+  // Repeated searches and pages are answered from the cache unless the client asks to bypass it,
+  // in which case the fresh response replaces the cached one
+  private CompletableFuture<JsonObject> searchConnector(String query, String connector, int offset, int limit, Map<String, String> headers) {
+    String key = SearchResponseCache.key(getTenantId(headers), connector, query, offset, limit);
+    if (SEARCH_CACHE_BYPASS.equalsIgnoreCase(headers.get(SEARCH_CACHE_HEADER))) {
+      return fetchSearch(query, connector, offset, limit, headers)
+        .thenApply(response -> {
+          searchCache.put(key, response);
+          return response;
+        });
+    }
+    return searchCache.get(key, () -> fetchSearch(query, connector, offset, limit, headers));
+  }
+
+  private CompletableFuture<JsonObject> fetchSearch(String query, String connector, int offset, int limit, Map<String, String> headers) {
+    PooledHttpClient client = getHttpClient(headers);
+
+    // Add a header specifying the connector module ID that was passed in the querystring,
+    // on a copy so that concurrent searches of other connectors are not affected
+    Map<String, String> connectorHeaders = new HashMap<>(headers);
+    connectorHeaders.put(MODULE_ID, connector);
+
+    // URLEncode our search terms before passing
+    String encodedQuery = encodeQuery(query, logger);
+    long timeout = Long.getLong("search.connector.timeout", SEARCH_CONNECTOR_TIMEOUT);
+    return connectorGuard.call(connector, () -> handleGetRequest("/ill-connector/search?query=" + encodedQuery + "&offset=" + offset
+      + "&limit=" + limit, timeout, client, connectorHeaders, logger));
+  }
+
 }
@@ -0,0 +1,131 @@
+package org.folio.service.illsupplingagency;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, expiring cache of connector search responses keyed on tenant, connector, normalized query and page. Concurrent
+ * misses for the same key share one connector call. Cached responses are shared between callers and must not be modified.
+ */
+public class SearchResponseCache {
+
+  private final long ttlMillis;
+  private final Map<String, Entry> entries;
+  private final Map<String, CompletableFuture<JsonObject>> loading = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder prefetches = new LongAdder();
+
+  public SearchResponseCache(int maxEntries, long ttlSeconds) {
+    this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+    this.entries = Collections.synchronizedMap(new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        boolean evict = size() > maxEntries;
+        if (evict) {
+          evictions.increment();
+        }
+        return evict;
+      }
+    });
+  }
+
+  public static String key(String tenant, String connector, String query, int offset, int limit) {
+    return String.join("|", tenant, connector, normalizeQuery(query), String.valueOf(offset), String.valueOf(limit));
+  }
+
+  /**
+   * @param key    key built with {@link #key(String, String, String, int, int)}
+   * @param loader sends the search to the connector on a miss
+   * @return cached or freshly loaded search response
+   */
+  public CompletableFuture<JsonObject> get(String key, Supplier<CompletableFuture<JsonObject>> loader) {
+    Entry entry = entries.get(key);
+    if (Objects.nonNull(entry) && entry.expiresAt > System.currentTimeMillis()) {
+      hits.increment();
+      return CompletableFuture.completedFuture(entry.response);
+    }
+    misses.increment();
+    return load(key, loader);
+  }
+
+  /**
+   * Loads a response nobody has asked for yet, e.g. the next page. Counted as a prefetch rather than a miss, so the miss
+   * count keeps reflecting what clients actually waited for.
+   *
+   * @param key    key built with {@link #key(String, String, String, int, int)}
+   * @param loader sends the search to the connector
+   * @return the loaded response, or the one already being loaded for the key
+   */
+  public CompletableFuture<JsonObject> prefetch(String key, Supplier<CompletableFuture<JsonObject>> loader) {
+    prefetches.increment();
+    return load(key, loader);
+  }
+
+  private CompletableFuture<JsonObject> load(String key, Supplier<CompletableFuture<JsonObject>> loader) {
+    CompletableFuture<JsonObject> promise = new CompletableFuture<>();
+    CompletableFuture<JsonObject> existing = loading.putIfAbsent(key, promise);
+    if (Objects.nonNull(existing)) {
+      return existing;
+    }
+    CompletableFuture<JsonObject> loaded;
+    try {
+      loaded = loader.get();
+    } catch (Exception e) {
+      loaded = CompletableFuture.failedFuture(e);
+    }
+    loaded.whenComplete((response, t) -> {
+      loading.remove(key, promise);
+      if (Objects.nonNull(t)) {
+        promise.completeExceptionally(t);
+      } else {
+        put(key, response);
+        promise.complete(response);
+      }
+    });
+    return promise;
+  }
+
+  public void put(String key, JsonObject response) {
+    entries.put(key, new Entry(response, System.currentTimeMillis() + ttlMillis));
+  }
+
+  public boolean contains(String key) {
+    Entry entry = entries.get(key);
+    return Objects.nonNull(entry) && entry.expiresAt > System.currentTimeMillis();
+  }
+
+  public JsonObject getStats() {
+    return new JsonObject()
+      .put("size", entries.size())
+      .put("hits", hits.sum())
+      .put("misses", misses.sum())
+      .put("evictions", evictions.sum())
+      .put("prefetches", prefetches.sum());
+  }
+
+  // Whitespace differences don't change the meaning of a CQL query
+  private static String normalizeQuery(String query) {
+    return Objects.isNull(query) ? "" : query.trim().replaceAll("\\s+", " ");
+  }
+
+  private static class Entry {
+    private final JsonObject response;
+    private final long expiresAt;
+
+    private Entry(JsonObject response, long expiresAt) {
+      this.response = response;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
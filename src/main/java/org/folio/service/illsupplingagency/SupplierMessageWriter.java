@@ -0,0 +1,140 @@
+package org.folio.service.illsupplingagency;
+
+import io.vertx.core.Context;
+import io.vertx.core.json.JsonObject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.service.BaseService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TOKEN;
+
+/**
+ * Collects supplier messages and writes them to storage together. Only messages of the same tenant, sent with the same
+ * token by the same user, share a batch, so a batch is written with the permissions each of its messages was sent with.
+ * A batch is written once it holds {@code maxBatchSize} messages or {@code maxDelay} milliseconds after its first
+ * message, whichever comes first. Each caller gets the ID of its own message, or the failure that kept its message from
+ * being stored.
+ */
+public class SupplierMessageWriter {
+
+  private static final Logger logger = LogManager.getLogger(SupplierMessageWriter.class);
+  private static final String USER_ID = "x-okapi-user-id";
+
+  private final int maxBatchSize;
+  private final long maxDelay;
+  private final BiFunction<List<JsonObject>, List<Map<String, String>>, List<CompletableFuture<String>>> bulkWrite;
+  private final Map<String, Batch> pending = new HashMap<>();
+
+  /**
+   * @param maxBatchSize maximum number of messages written in one call
+   * @param maxDelay     maximum time in milliseconds a message waits for its batch to be written
+   * @param bulkWrite    writes a list of messages, each with the headers it was sent with, and returns the outcome of
+   *                     each message in the same order
+   */
+  public SupplierMessageWriter(int maxBatchSize, long maxDelay,
+      BiFunction<List<JsonObject>, List<Map<String, String>>, List<CompletableFuture<String>>> bulkWrite) {
+    this.maxBatchSize = maxBatchSize;
+    this.maxDelay = maxDelay;
+    this.bulkWrite = bulkWrite;
+  }
+
+  /**
+   * @param message message to store
+   * @param context Vert.X context used to schedule the write of a partial batch
+   * @param headers Okapi headers the message was sent with
+   * @return ID of the stored message
+   */
+  public CompletableFuture<String> write(JsonObject message, Context context, Map<String, String> headers) {
+    String key = batchKey(headers);
+    PendingMessage pendingMessage = new PendingMessage(message, new HashMap<>(headers));
+    Batch full = null;
+    synchronized (pending) {
+      Batch batch = pending.get(key);
+      if (Objects.isNull(batch)) {
+        Batch created = new Batch();
+        created.timerId = context.owner().setTimer(maxDelay, id -> flush(key, created));
+        pending.put(key, created);
+        batch = created;
+      }
+      batch.messages.add(pendingMessage);
+      if (batch.messages.size() >= maxBatchSize) {
+        pending.remove(key);
+        context.owner().cancelTimer(batch.timerId);
+        full = batch;
+      }
+    }
+    if (Objects.nonNull(full)) {
+      send(full);
+    }
+    return pendingMessage.future;
+  }
+
+  private void flush(String key, Batch batch) {
+    synchronized (pending) {
+      if (!pending.remove(key, batch)) {
+        // Already written because it filled up
+        return;
+      }
+    }
+    send(batch);
+  }
+
+  private void send(Batch batch) {
+    List<JsonObject> messages = batch.messages.stream()
+      .map(pendingMessage -> pendingMessage.message)
+      .collect(Collectors.toList());
+    List<Map<String, String>> headers = batch.messages.stream()
+      .map(pendingMessage -> pendingMessage.headers)
+      .collect(Collectors.toList());
+    logger.debug("Writing a batch of {} supplier messages", messages.size());
+    List<CompletableFuture<String>> written;
+    try {
+      written = bulkWrite.apply(messages, headers);
+    } catch (RuntimeException e) {
+      batch.messages.forEach(pendingMessage -> pendingMessage.future.completeExceptionally(e));
+      return;
+    }
+    for (int i = 0; i < batch.messages.size(); i++) {
+      CompletableFuture<String> future = batch.messages.get(i).future;
+      written.get(i).whenComplete((id, t) -> {
+        if (Objects.nonNull(t)) {
+          future.completeExceptionally(t);
+        } else {
+          future.complete(id);
+        }
+      });
+    }
+  }
+
+  // Messages share a batch only when they would be written with the same permissions
+  private static String batchKey(Map<String, String> headers) {
+    return String.join("|", BaseService.getTenantId(headers),
+      Objects.toString(headers.get(OKAPI_HEADER_TOKEN), ""),
+      Objects.toString(headers.get(USER_ID), ""));
+  }
+
+  private static class Batch {
+    private final List<PendingMessage> messages = new ArrayList<>();
+    private long timerId;
+  }
+
+  private static class PendingMessage {
+    private final JsonObject message;
+    private final Map<String, String> headers;
+    private final CompletableFuture<String> future = new CompletableFuture<>();
+
+    PendingMessage(JsonObject message, Map<String, String> headers) {
+      this.message = message;
+      this.headers = headers;
+    }
+  }
+}
@@ -0,0 +1,197 @@
+package org.folio.service.sarequest;
+
+import io.vertx.core.Context;
+import io.vertx.core.json.JsonObject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.domain.SubmittableRequest;
+import org.folio.domain.SubmittableSubmission;
+import org.folio.domain.SupplyingAgency;
+import org.folio.exception.ErrorCodes;
+import org.folio.exception.HttpException;
+import org.folio.rest.jaxrs.model.Request;
+import org.folio.rest.jaxrs.model.SaRequestBatchResponse;
+import org.folio.rest.jaxrs.model.SaRequestBatchResult;
+import org.folio.rest.jaxrs.model.SaRequestRequest;
+import org.folio.rest.jaxrs.model.SaRequestResponse;
+import org.folio.rest.jaxrs.model.Submission;
+import org.folio.service.illrequest.IllrequestService;
+import org.folio.service.illsubmission.IllsubmissionService;
+import org.folio.service.illsubmissionstatus.IllsubmissionstatusService;
+import org.folio.service.illsupplingagency.IllSupplyingAgencyService;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.folio.config.Constants.SA_REQUEST_BATCH_CONCURRENCY;
+import static org.folio.config.Constants.SA_REQUEST_BATCH_MAX_SIZE;
+
+/**
+ * Places a request with a supplying agency. The submission is created first, as both the local request and the
+ * supplier need it to exist, after which the local request is persisted and the supplier is contacted concurrently.
+ * The pipeline completes once both have finished; if both fail the persistence failure is reported.
+ * <p>
+ * As the two run concurrently, a supplier may accept a request whose local record then fails to be stored. Nothing is
+ * sent to the supplier to undo it, the failure is logged at error level together with the supplier's response so the
+ * request can be reconciled.
+ */
+public class SaRequestPipeline {
+
+  private static final Logger logger = LogManager.getLogger(SaRequestPipeline.class);
+  private static final String RESULT_OK = "ok";
+  private static final String RESULT_FAILED = "failed";
+
+  @Autowired
+  private IllsubmissionstatusService illsubmissionstatusService;
+  @Autowired
+  private IllsubmissionService illsubmissionService;
+  @Autowired
+  private IllrequestService illrequestService;
+  @Autowired
+  private IllSupplyingAgencyService illSupplyingAgencyService;
+  @Autowired
+  private SupplierDispatchQueue supplierDispatchQueue;
+
+  private final boolean asyncDispatch = Boolean.getBoolean("sa.request.async");
+  private final int batchConcurrency = Math.max(1, Integer.getInteger("sa.request.batch.concurrency", SA_REQUEST_BATCH_CONCURRENCY));
+  private final int batchMaxSize = Integer.getInteger("sa.request.batch.maxSize", SA_REQUEST_BATCH_MAX_SIZE);
+
+  public CompletableFuture<SaRequestResponse> process(SaRequestRequest request, Context context, Map<String, String> headers) {
+    StageTimings timings = new StageTimings();
+
+    CompletableFuture<Submission> submission = createSubmission(request, context, headers, timings);
+    CompletableFuture<Request> persisted = createRequest(submission, request, context, headers, timings);
+
+    CompletableFuture<SaRequestResponse> supplied = submission.thenCompose(createdSub -> timings.time("submitToSupplier",
+      () -> illSupplyingAgencyService.sendSupplierRequest(new SupplyingAgency().buildRequest(request), context, headers)));
+
+    return CompletableFuture.allOf(persisted, supplied)
+      .handle((v, t) -> {
+        Throwable persistFailure = failureOf(persisted);
+        if (Objects.nonNull(persistFailure)) {
+          if (Objects.isNull(failureOf(supplied))) {
+            logger.error("sa-request accepted by the supplier with response {} but the local request was not stored",
+              JsonObject.mapFrom(supplied.join()).encode(), persistFailure);
+          }
+          throw new CompletionException(persistFailure);
+        }
+        Throwable supplyFailure = failureOf(supplied);
+        if (Objects.nonNull(supplyFailure)) {
+          throw new CompletionException(supplyFailure);
+        }
+        return supplied.join();
+      })
+      .whenComplete((supplierResponse, t) -> {
+        if (Objects.nonNull(t)) {
+          logger.warn("sa-request failed after {}", timings, t);
+        } else {
+          logger.info("sa-request completed: {}", timings);
+        }
+      });
+  }
+
+  // The cause a completed future failed with, null when it succeeded
+  private static Throwable failureOf(CompletableFuture<?> future) {
+    if (!future.isCompletedExceptionally()) {
+      return null;
+    }
+    Throwable t = future.handle((result, e) -> e).join();
+    return t instanceof CompletionException && Objects.nonNull(t.getCause()) ? t.getCause() : t;
+  }
+
+  public boolean isAsyncDispatch() {
+    return asyncDispatch;
+  }
+
+  /**
+   * Persists the submission and the local request, then leaves sending it to the supplier to the
+   * {@link SupplierDispatchQueue} so the caller doesn't wait for the supplier. Nothing is persisted when the queue is full.
+   *
+   * @return the persisted local request, or a 503 when the queue is full
+   */
+  public CompletableFuture<Request> processAsync(SaRequestRequest request, Context context, Map<String, String> headers) {
+    try {
+      supplierDispatchQueue.reserve();
+    } catch (HttpException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    StageTimings timings = new StageTimings();
+    return createRequest(createSubmission(request, context, headers, timings), request, context, headers, timings)
+      .whenComplete((createdRequest, t) -> {
+        if (Objects.nonNull(t)) {
+          supplierDispatchQueue.release();
+        }
+      })
+      .thenApply(createdRequest -> {
+        supplierDispatchQueue.enqueue(createdRequest, request, context, headers);
+        logger.info("sa-request {} queued for supplier: {}", createdRequest.getId(), timings);
+        return createdRequest;
+      });
+  }
+
+  /**
+   * Processes every request of a batch through the pipeline, keeping at most {@code sa.request.batch.concurrency} of them
+   * in progress. A failed request does not stop the batch, its failure is reported in its result. Every request waits for
+   * its supplier whatever {@code sa.request.async} says, as the results carry the suppliers' responses.
+   *
+   * @return one result per request, in the order of the batch, or a 422 when the batch holds more than
+   * {@code sa.request.batch.maxSize} requests
+   */
+  public CompletableFuture<SaRequestBatchResponse> processBatch(List<SaRequestRequest> requests, Context context, Map<String, String> headers) {
+    if (requests.size() > batchMaxSize) {
+      return CompletableFuture.failedFuture(new HttpException(422, ErrorCodes.BATCH_TOO_LARGE.toError()
+        .withMessage(String.format("The batch holds %d requests, at most %d are accepted", requests.size(), batchMaxSize))));
+    }
+    SaRequestBatchResult[] results = new SaRequestBatchResult[requests.size()];
+    AtomicInteger next = new AtomicInteger();
+    CompletableFuture<?>[] lanes = IntStream.range(0, Math.min(batchConcurrency, requests.size()))
+      .mapToObj(lane -> processNext(requests, results, next, context, headers))
+      .toArray(CompletableFuture[]::new);
+    return CompletableFuture.allOf(lanes)
+      .thenApply(v -> new SaRequestBatchResponse()
+        .withResults(Arrays.asList(results))
+        .withTotalRecords(results.length));
+  }
+
+  // Each lane takes the next unprocessed request once its current one has finished
+  private CompletableFuture<Void> processNext(List<SaRequestRequest> requests, SaRequestBatchResult[] results, AtomicInteger next,
+      Context context, Map<String, String> headers) {
+    int index = next.getAndIncrement();
+    if (index >= requests.size()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return process(requests.get(index), context, headers)
+      .handle((supplierResponse, t) -> {
+        SaRequestBatchResult result = new SaRequestBatchResult().withIndex(index);
+        if (Objects.nonNull(t)) {
+          Throwable cause = t instanceof CompletionException && Objects.nonNull(t.getCause()) ? t.getCause() : t;
+          result.withStatus(RESULT_FAILED).withError(cause.getMessage());
+        } else {
+          result.withStatus(RESULT_OK).withResponse(supplierResponse);
+        }
+        results[index] = result;
+        return null;
+      })
+      .thenCompose(v -> processNext(requests, results, next, context, headers));
+  }
+
+  private CompletableFuture<Submission> createSubmission(SaRequestRequest request, Context context, Map<String, String> headers,
+      StageTimings timings) {
+    return timings.time("resolveStatus", () -> illsubmissionstatusService.getInitialSubmissionStatusId(context, headers))
+      .thenCompose(statusId -> timings.time("createSubmission",
+        () -> illsubmissionService.createSubmission(new SubmittableSubmission(request, statusId).build(), context, headers)));
+  }
+
+  private CompletableFuture<Request> createRequest(CompletableFuture<Submission> submission, SaRequestRequest request,
+      Context context, Map<String, String> headers, StageTimings timings) {
+    return submission.thenCompose(createdSub -> timings.time("createRequest",
+      () -> illrequestService.createRequest(new SubmittableRequest(createdSub, request).build(), context, headers)));
+  }
+}
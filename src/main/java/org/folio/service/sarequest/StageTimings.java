@@ -0,0 +1,39 @@
+package org.folio.service.sarequest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Records how long each stage of a pipeline took, in the order the stages finished.
+ */
+public class StageTimings {
+
+  private final long started = System.nanoTime();
+  private final Map<String, Long> timings = new LinkedHashMap<>();
+
+  public <T> CompletableFuture<T> time(String stage, Supplier<CompletableFuture<T>> action) {
+    long start = System.nanoTime();
+    return action.get()
+      .whenComplete((result, t) -> record(stage, System.nanoTime() - start));
+  }
+
+  public synchronized Map<String, Long> getTimingsMillis() {
+    return new LinkedHashMap<>(timings);
+  }
+
+  public long getTotalMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+  }
+
+  private synchronized void record(String stage, long nanos) {
+    timings.put(stage, TimeUnit.NANOSECONDS.toMillis(nanos));
+  }
+
+  @Override
+  public synchronized String toString() {
+    return timings + " total=" + getTotalMillis() + "ms";
+  }
+}
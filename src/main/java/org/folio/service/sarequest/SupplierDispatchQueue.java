@@ -0,0 +1,179 @@
+package org.folio.service.sarequest;
+
+import io.vertx.core.Context;
+import io.vertx.core.json.JsonObject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.domain.SupplyingAgency;
+import org.folio.exception.HttpException;
+import org.folio.rest.jaxrs.model.Request;
+import org.folio.rest.jaxrs.model.SaRequestRequest;
+import org.folio.rest.jaxrs.model.SaRequestResponse;
+import org.folio.service.illsubmission.IllsubmissionService;
+import org.folio.service.illsubmissionstatus.IllsubmissionstatusService;
+import org.folio.service.illsupplingagency.IllSupplyingAgencyService;
+import org.folio.util.RetryUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.folio.config.Constants.SUPPLIER_DEAD_LETTER_STATUS;
+import static org.folio.config.Constants.SUPPLIER_QUEUE_CAPACITY;
+import static org.folio.config.Constants.SUPPLIER_QUEUE_CONCURRENCY;
+import static org.folio.config.Constants.SUPPLIER_RETRY_BASE_DELAY;
+import static org.folio.config.Constants.SUPPLIER_RETRY_MAX_ATTEMPTS;
+import static org.folio.config.Constants.SUPPLIER_RETRY_MAX_DELAY;
+
+/**
+ * Sends already persisted requests to their supplying agency in the background. Dispatches run on the Vert.x context
+ * that enqueued them, at most {@code sa.request.queue.concurrency} at a time. Dispatches that fail because the supplier
+ * could not be reached or answered with a 5xx are retried with exponential backoff, keeping their place among the
+ * dispatches in progress. A dispatch that is rejected, or still fails after {@code sa.request.retry.maxAttempts}, is
+ * dead-lettered: the submission of the request is moved to the {@code sa.request.deadLetter.status} submission status so
+ * that it can be found and acted upon.
+ * <p>
+ * The queue is not durable. It lives in memory, so dispatches that are queued or being retried when the module stops are
+ * lost; their submission and request are in storage, without a supplier request ID. A place in the queue is reserved
+ * before they are stored, so a full queue turns requests away before anything is persisted.
+ */
+public class SupplierDispatchQueue {
+
+  private static final Logger logger = LogManager.getLogger(SupplierDispatchQueue.class);
+
+  @Autowired
+  private IllSupplyingAgencyService illSupplyingAgencyService;
+  @Autowired
+  private IllsubmissionService illsubmissionService;
+  @Autowired
+  private IllsubmissionstatusService illsubmissionstatusService;
+
+  private final int capacity = Integer.getInteger("sa.request.queue.capacity", SUPPLIER_QUEUE_CAPACITY);
+  private final int concurrency = Integer.getInteger("sa.request.queue.concurrency", SUPPLIER_QUEUE_CONCURRENCY);
+  private final int maxAttempts = Integer.getInteger("sa.request.retry.maxAttempts", SUPPLIER_RETRY_MAX_ATTEMPTS);
+  private final long baseDelay = Long.getLong("sa.request.retry.baseDelay", SUPPLIER_RETRY_BASE_DELAY);
+  private final long maxDelay = Long.getLong("sa.request.retry.maxDelay", SUPPLIER_RETRY_MAX_DELAY);
+  // ID or name of the submission status dead-lettered requests are moved to
+  private final String deadLetterStatus = System.getProperty("sa.request.deadLetter.status", SUPPLIER_DEAD_LETTER_STATUS);
+
+  private final Deque<Task> queue = new ArrayDeque<>();
+  private int reserved;
+  private int inFlight;
+
+  /**
+   * Reserves a place in the queue for a request that is about to be persisted. The place is taken by
+   * {@link #enqueue(Request, SaRequestRequest, Context, Map)}, or given back with {@link #release()} if the request could
+   * not be persisted.
+   *
+   * @throws HttpException with status 503 if the queue is full
+   */
+  public synchronized void reserve() {
+    if (queue.size() + reserved >= capacity) {
+      throw new HttpException(503, "Supplier queue is full");
+    }
+    reserved++;
+  }
+
+  public synchronized void release() {
+    reserved--;
+  }
+
+  /**
+   * Queues a persisted request in the place reserved for it.
+   *
+   * @param persisted the persisted local request
+   * @param request   payload to send to the supplying agency
+   */
+  public void enqueue(Request persisted, SaRequestRequest request, Context context, Map<String, String> headers) {
+    synchronized (this) {
+      reserved--;
+      queue.addLast(new Task(persisted.getId(), persisted.getSubmissionId(), request, context, new HashMap<>(headers)));
+    }
+    drain();
+  }
+
+  public synchronized JsonObject getStats() {
+    return new JsonObject()
+      .put("queued", queue.size())
+      .put("reserved", reserved)
+      .put("inFlight", inFlight);
+  }
+
+  private void drain() {
+    while (true) {
+      Task task;
+      synchronized (this) {
+        if (inFlight >= concurrency || queue.isEmpty()) {
+          return;
+        }
+        task = queue.pollFirst();
+        inFlight++;
+      }
+      task.context.runOnContext(v -> dispatch(task));
+    }
+  }
+
+  private void dispatch(Task task) {
+    RetryUtils.withBackoff(task.context, () -> attempt(task), maxAttempts, baseDelay, maxDelay, RetryUtils::isTransient)
+      .whenComplete((response, t) -> task.context.runOnContext(v -> {
+        synchronized (this) {
+          inFlight--;
+        }
+        if (Objects.isNull(t)) {
+          logger.info("Request {} sent to supplier after {} attempt(s)", task.requestId, task.attempts);
+        } else {
+          deadLetter(task, t);
+        }
+        drain();
+      }));
+  }
+
+  private CompletableFuture<SaRequestResponse> attempt(Task task) {
+    if (task.attempts++ > 0) {
+      logger.warn("Sending request {} to supplier again, attempt {} of {}", task.requestId, task.attempts, maxAttempts);
+    }
+    return illSupplyingAgencyService.sendSupplierRequest(new SupplyingAgency().buildRequest(task.request), task.context,
+      task.headers);
+  }
+
+  private void deadLetter(Task task, Throwable t) {
+    logger.error("Giving up sending request {} to supplier after {} attempt(s)", task.requestId, task.attempts, t);
+    illsubmissionstatusService.findSubmissionStatusId(deadLetterStatus, task.context, task.headers)
+      .thenCompose(statusId -> {
+        if (Objects.isNull(statusId)) {
+          throw new CompletionException(new HttpException(500, "Submission status '" + deadLetterStatus + "' not found"));
+        }
+        return illsubmissionService.getSubmissionById(task.submissionId, task.context, task.headers)
+          .thenCompose(submission -> illsubmissionService.updateSubmissionById(task.submissionId,
+            submission.withStatusId(statusId), task.context, task.headers));
+      })
+      .exceptionally(e -> {
+        logger.error("Could not move submission {} of request {} to status '{}'", task.submissionId, task.requestId,
+          deadLetterStatus, e);
+        return null;
+      });
+  }
+
+  private static class Task {
+    private final String requestId;
+    private final String submissionId;
+    private final SaRequestRequest request;
+    private final Context context;
+    private final Map<String, String> headers;
+    private int attempts;
+
+    private Task(String requestId, String submissionId, SaRequestRequest request, Context context,
+        Map<String, String> headers) {
+      this.requestId = requestId;
+      this.submissionId = submissionId;
+      this.request = request;
+      this.context = context;
+      this.headers = headers;
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package org.folio.service.saupdate;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Bounded index of the supplier messages that were recently received. A message whose key is already indexed shares the
+ * outcome of the first copy instead of being processed again. A copy whose processing failed is removed so the supplier's
+ * retry is processed. The least recently seen keys are evicted once more than the configured number are indexed.
+ */
+public class InboundMessageIndex<T> {
+
+  private final Map<String, CompletableFuture<T>> entries;
+
+  public InboundMessageIndex(int maxEntries) {
+    this.entries = Collections.synchronizedMap(new LinkedHashMap<String, CompletableFuture<T>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<T>> eldest) {
+        return size() > maxEntries;
+      }
+    });
+  }
+
+  /**
+   * @param key       identity of the message
+   * @param processor processes the first copy of the message
+   * @return outcome of the first copy of the message
+   */
+  public CompletableFuture<T> process(String key, Supplier<CompletableFuture<T>> processor) {
+    CompletableFuture<T> promise = new CompletableFuture<>();
+    CompletableFuture<T> existing = entries.putIfAbsent(key, promise);
+    if (Objects.nonNull(existing)) {
+      return existing;
+    }
+    processor.get().whenComplete((result, t) -> {
+      if (Objects.nonNull(t)) {
+        entries.remove(key, promise);
+        promise.completeExceptionally(t);
+      } else {
+        promise.complete(result);
+      }
+    });
+    return promise;
+  }
+}
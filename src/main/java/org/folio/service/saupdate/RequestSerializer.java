@@ -0,0 +1,41 @@
+package org.folio.service.saupdate;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs tasks that share a key one after the other, in the order they were submitted. Tasks with different keys run
+ * independently. A failed task does not stop the tasks queued behind it.
+ */
+public class RequestSerializer {
+
+  private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+  public <T> CompletableFuture<T> submit(String key, Supplier<CompletableFuture<T>> task) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    CompletableFuture<Void> done = new CompletableFuture<>();
+    CompletableFuture<Void> previous = tails.put(key, done);
+    CompletableFuture<Void> start = Objects.isNull(previous) ? CompletableFuture.completedFuture(null) : previous;
+    start.whenComplete((v, ignored) -> {
+      CompletableFuture<T> running;
+      try {
+        running = task.get();
+      } catch (Exception e) {
+        running = CompletableFuture.failedFuture(e);
+      }
+      running.whenComplete((value, t) -> {
+        tails.remove(key, done);
+        done.complete(null);
+        if (Objects.nonNull(t)) {
+          result.completeExceptionally(t);
+        } else {
+          result.complete(value);
+        }
+      });
+    });
+    return result;
+  }
+}
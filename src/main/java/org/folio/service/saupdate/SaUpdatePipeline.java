@@ -0,0 +1,139 @@
+package org.folio.service.saupdate;
+
+import io.vertx.core.Context;
+import io.vertx.core.json.JsonObject;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.folio.domain.SaUpdateConfirmation;
+import org.folio.exception.HttpException;
+import org.folio.rest.jaxrs.model.SaMessageRequest;
+import org.folio.rest.jaxrs.model.SaMessageResponse;
+import org.folio.rest.jaxrs.model.SupplyingAgencyMessageHeader;
+import org.folio.rest.jaxrs.model.supplying_agency_message_storage.request.SupplyingAgencyMessageStorageRequest;
+import org.folio.service.BaseService;
+import org.folio.service.illrequest.IllrequestService;
+import org.folio.service.illsupplingagency.IllSupplyingAgencyService;
+import org.folio.util.RetryUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+import static org.folio.config.Constants.SA_UPDATE_DEDUPE_MAX_ENTRIES;
+import static org.folio.config.Constants.SA_UPDATE_RECONCILE_ATTEMPTS;
+import static org.folio.config.Constants.SA_UPDATE_RETRY_BASE_DELAY;
+import static org.folio.config.Constants.SA_UPDATE_STORE_ATTEMPTS;
+
+/**
+ * Ingests supplying agency messages. A message is accepted once it is stored, which is when the confirmation is
+ * produced. Updating the local request with the supplier's request ID follows as a separate stage that runs after the
+ * message is stored, in the background, and is retried on its own.
+ * <p>
+ * Suppliers retry messages, so copies of a message that was recently received share the outcome of the first copy and are
+ * neither stored nor acted on again. Storing the message and updating the request are retried only when storage could not
+ * be reached or failed with a 5xx. The stored message's ID is derived from the message key, so a retry of a store that did go through is recognized as a
+ * duplicate rather than storing a second copy. Messages about the same request are stored, and acted on, one at a time in the order
+ * they arrived.
+ */
+public class SaUpdatePipeline {
+
+  private static final Logger logger = LogManager.getLogger(SaUpdatePipeline.class);
+
+  @Autowired
+  private IllSupplyingAgencyService illSupplyingAgencyService;
+  @Autowired
+  private IllrequestService illrequestService;
+
+  private final int storeAttempts = Integer.getInteger("sa.update.store.attempts", SA_UPDATE_STORE_ATTEMPTS);
+  private final int reconcileAttempts = Integer.getInteger("sa.update.reconcile.attempts", SA_UPDATE_RECONCILE_ATTEMPTS);
+  private final long retryDelay = Long.getLong("sa.update.retry.baseDelay", SA_UPDATE_RETRY_BASE_DELAY);
+  private final InboundMessageIndex<SaMessageResponse> receivedMessages = new InboundMessageIndex<>(
+    Integer.getInteger("sa.update.dedupe.maxEntries", SA_UPDATE_DEDUPE_MAX_ENTRIES));
+  private final RequestSerializer storeLanes = new RequestSerializer();
+  private final RequestSerializer reconcileLanes = new RequestSerializer();
+
+  public CompletableFuture<SaMessageResponse> ingest(SaMessageRequest message, Context context, Map<String, String> headers) {
+    String tenant = BaseService.getTenantId(headers);
+    String key = messageKey(tenant, message);
+    return receivedMessages.process(key,
+      () -> storeLanes.submit(laneKey(tenant, message.getHeader()), () -> store(key, message, context, headers)));
+  }
+
+  private CompletableFuture<SaMessageResponse> store(String key, SaMessageRequest message, Context context,
+      Map<String, String> headers) {
+    String requestId = message.getHeader().getRequestingAgencyRequestId();
+    // We store the entire message
+    SupplyingAgencyMessageStorageRequest samsr = new SupplyingAgencyMessageStorageRequest()
+      .withRequestId(requestId)
+      .withMessage(JsonObject.mapFrom(message).encode());
+    // The headers belong to the incoming request, the background stage keeps its own copy
+    Map<String, String> stageHeaders = new HashMap<>(headers);
+
+    String messageId = UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+    AtomicInteger attempts = new AtomicInteger();
+
+    return RetryUtils.withBackoff(context,
+        () -> storeOnce(samsr, messageId, requestId, attempts.incrementAndGet() > 1, context, stageHeaders),
+        storeAttempts, retryDelay, Long.MAX_VALUE, RetryUtils::isTransient)
+      .thenApply(stored -> {
+        reconcileSupplierRequestId(message.getHeader(), context, stageHeaders);
+        return new SaUpdateConfirmation(message).build();
+      });
+  }
+
+  // A retry finding the message already stored means an earlier attempt went through without us hearing back
+  private CompletableFuture<Void> storeOnce(SupplyingAgencyMessageStorageRequest samsr, String messageId, String requestId,
+      boolean retry, Context context, Map<String, String> headers) {
+    return illSupplyingAgencyService.storeSupplierMessage(samsr, messageId, requestId, context, headers)
+      .handle((stored, t) -> {
+        if (Objects.nonNull(t) && !(retry && isDuplicate(t))) {
+          throw t instanceof CompletionException ? (CompletionException) t : new CompletionException(t);
+        }
+        return null;
+      });
+  }
+
+  private static boolean isDuplicate(Throwable t) {
+    Throwable cause = t instanceof CompletionException && Objects.nonNull(t.getCause()) ? t.getCause() : t;
+    return cause instanceof HttpException
+      && (((HttpException) cause).getCode() == 400 || ((HttpException) cause).getCode() == 422)
+      && String.valueOf(cause.getMessage()).contains("already exists");
+  }
+
+  // Update the local request with the supplier's ID if the message carries both IDs
+  private void reconcileSupplierRequestId(SupplyingAgencyMessageHeader header, Context context, Map<String, String> headers) {
+    String raReqId = header.getRequestingAgencyRequestId();
+    String saReqId = header.getSupplyingAgencyRequestId();
+    if (isEmpty(raReqId) || isEmpty(saReqId)) {
+      return;
+    }
+    reconcileLanes.submit(laneKey(BaseService.getTenantId(headers), header),
+        () -> RetryUtils.withBackoff(context, () -> illrequestService.updateSupplierRequestId(raReqId, saReqId, context, headers),
+          reconcileAttempts, retryDelay, Long.MAX_VALUE, RetryUtils::isTransient))
+      .exceptionally(t -> {
+        logger.error("Could not set supplier request ID {} on request {}", saReqId, raReqId, t);
+        return null;
+      });
+  }
+
+  // A supplier's copies of a message carry the same agency, request, timestamp and reason
+  private static String messageKey(String tenant, SaMessageRequest message) {
+    JsonObject header = JsonObject.mapFrom(message.getHeader());
+    return String.join("|", tenant,
+      String.valueOf(header.getValue("SupplyingAgencyId")),
+      String.valueOf(header.getValue("RequestingAgencyRequestId")),
+      String.valueOf(header.getValue("Timestamp")),
+      String.valueOf(message.getMessageInfo().getReasonForMessage()));
+  }
+
+  private static String laneKey(String tenant, SupplyingAgencyMessageHeader header) {
+    return tenant + "|" + header.getRequestingAgencyRequestId();
+  }
+}
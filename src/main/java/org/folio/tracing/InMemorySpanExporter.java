@@ -0,0 +1,54 @@
+package org.folio.tracing;
+
+import io.vertx.core.json.JsonArray;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the most recently ended spans in memory, up to a fixed number, so that the traces of recent requests can be looked
+ * at without a tracing backend. A trace belongs to the tenant its first span was started for; once that span is evicted
+ * the rest of the trace is no longer returned.
+ */
+public class InMemorySpanExporter implements SpanExporter {
+
+  private final int maxSpans;
+  private final Deque<Span> spans = new ArrayDeque<>();
+
+  public InMemorySpanExporter(int maxSpans) {
+    this.maxSpans = maxSpans;
+  }
+
+  @Override
+  public synchronized void export(Span span) {
+    if (spans.size() >= maxSpans) {
+      spans.pollFirst();
+    }
+    spans.addLast(span);
+  }
+
+  /**
+   * @param traceId trace to return the spans of, all kept spans of the tenant when null
+   * @param tenant  tenant the traces were started for
+   * @return the kept spans in the order they ended
+   */
+  public synchronized JsonArray getSpans(String traceId, String tenant) {
+    Set<String> tenantTraces = spans.stream()
+      .filter(span -> Objects.nonNull(tenant) && tenant.equals(span.getTenant()))
+      .map(Span::getTraceId)
+      .collect(Collectors.toSet());
+    JsonArray result = new JsonArray();
+    spans.stream()
+      .filter(span -> tenantTraces.contains(span.getTraceId()))
+      .filter(span -> Objects.isNull(traceId) || traceId.equals(span.getTraceId()))
+      .forEach(span -> result.add(span.toJson()));
+    return result;
+  }
+
+  public synchronized void clear() {
+    spans.clear();
+  }
+}
@@ -0,0 +1,99 @@
+package org.folio.tracing;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One timed step of a traced request. Spans of the same request share the trace id, and each span but the first names the
+ * span it was started from as its parent.
+ */
+public class Span {
+
+  public static final String OK = "ok";
+  public static final String ERROR = "error";
+
+  private final String traceId;
+  private final String spanId;
+  private final String parentId;
+  private final String name;
+  private final String tenant;
+  private final long startedAt = System.currentTimeMillis();
+  private final long startNanos = System.nanoTime();
+  private final JsonObject attributes = new JsonObject();
+  private final SpanExporter exporter;
+  private volatile long durationNanos = -1;
+  private volatile String status;
+
+  Span(String traceId, String spanId, String parentId, String name, String tenant, SpanExporter exporter) {
+    this.traceId = traceId;
+    this.spanId = spanId;
+    this.parentId = parentId;
+    this.name = name;
+    this.tenant = tenant;
+    this.exporter = exporter;
+  }
+
+  public Span setAttribute(String key, Object value) {
+    synchronized (attributes) {
+      attributes.put(key, value);
+    }
+    return this;
+  }
+
+  /**
+   * Ends the span and hands it to the exporter. Only the first call has an effect.
+   *
+   * @param error failure that ended the step, null when it succeeded
+   */
+  public void end(Throwable error) {
+    synchronized (this) {
+      if (durationNanos >= 0) {
+        return;
+      }
+      durationNanos = System.nanoTime() - startNanos;
+      status = Objects.isNull(error) ? OK : ERROR;
+    }
+    if (Objects.nonNull(error)) {
+      setAttribute("error", String.valueOf(error.getMessage()));
+    }
+    exporter.export(this);
+  }
+
+  /**
+   * @return the span in the W3C trace context format, to be sent as the {@code traceparent} header of calls made for it
+   */
+  public String toTraceparent() {
+    return "00-" + traceId + "-" + spanId + "-01";
+  }
+
+  public String getTraceId() {
+    return traceId;
+  }
+
+  public String getSpanId() {
+    return spanId;
+  }
+
+  /**
+   * @return tenant of the request the trace was started for, null for spans started from a parent
+   */
+  public String getTenant() {
+    return tenant;
+  }
+
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject()
+      .put("traceId", traceId)
+      .put("spanId", spanId)
+      .put("parentId", parentId)
+      .put("name", name)
+      .put("startedAt", startedAt)
+      .put("durationMs", TimeUnit.NANOSECONDS.toMicros(durationNanos) / 1000.0)
+      .put("status", status);
+    synchronized (attributes) {
+      return json.put("attributes", attributes.copy());
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package org.folio.tracing;
+
+/**
+ * Receives spans once they have ended.
+ */
+public interface SpanExporter {
+
+  void export(Span span);
+}
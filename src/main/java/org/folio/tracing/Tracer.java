@@ -0,0 +1,96 @@
+package org.folio.tracing;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.folio.config.Constants.TRACING_MAX_SPANS;
+
+/**
+ * Starts spans and carries them between the steps of a request. The current span of a request travels in its Okapi
+ * headers as a W3C {@code traceparent} entry, so every service that is handed the headers can start child spans, and the
+ * HTTP clients, which send the headers on, pass the trace to the modules they call.
+ * <p>
+ * Tracing is off unless the module is started with {@code -Dtracing.enabled=true}.
+ */
+public class Tracer {
+
+  public static final String TRACEPARENT = "traceparent";
+
+  private static final Pattern TRACEPARENT_FORMAT = Pattern.compile("^00-([0-9a-f]{32})-([0-9a-f]{16})-[0-9a-f]{2}$");
+  private static final Tracer instance = new Tracer(
+    Boolean.getBoolean("tracing.enabled"),
+    new InMemorySpanExporter(Integer.getInteger("tracing.maxSpans", TRACING_MAX_SPANS)));
+
+  private final boolean enabled;
+  private final InMemorySpanExporter exporter;
+
+  private Tracer(boolean enabled, InMemorySpanExporter exporter) {
+    this.enabled = enabled;
+    this.exporter = exporter;
+  }
+
+  public static Tracer getInstance() {
+    return instance;
+  }
+
+  public InMemorySpanExporter getExporter() {
+    return exporter;
+  }
+
+  /**
+   * Starts the first span of a new trace.
+   *
+   * @param tenant tenant the traced request is made for, only that tenant gets to see the trace
+   * @return the span, null when tracing is disabled
+   */
+  public Span startTrace(String name, String tenant) {
+    return enabled ? new Span(randomHex(16), randomHex(8), null, name, tenant, exporter) : null;
+  }
+
+  /**
+   * Starts a child of the given span. Calls made outside of a traced request carry no parent and are not traced.
+   *
+   * @param traceparent parent span in the W3C trace context format, may be null
+   * @return the span, null when tracing is disabled or there is no valid parent
+   */
+  public Span startSpan(String name, String traceparent) {
+    if (!enabled || StringUtils.isEmpty(traceparent)) {
+      return null;
+    }
+    Matcher parent = TRACEPARENT_FORMAT.matcher(traceparent);
+    return parent.matches() ? new Span(parent.group(1), randomHex(8), parent.group(2), name, null, exporter) : null;
+  }
+
+  /**
+   * @return a copy of the headers that carries the span, or the headers as they are when there is no span
+   */
+  public static Map<String, String> withSpan(Map<String, String> headers, Span span) {
+    if (Objects.isNull(span)) {
+      return headers;
+    }
+    Map<String, String> traced = new HashMap<>(headers);
+    traced.put(TRACEPARENT, span.toTraceparent());
+    return traced;
+  }
+
+  public static void end(Span span, Throwable error) {
+    if (Objects.nonNull(span)) {
+      span.end(error);
+    }
+  }
+
+  private static String randomHex(int bytes) {
+    StringBuilder hex = new StringBuilder(bytes * 2);
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < bytes; i++) {
+      hex.append(String.format("%02x", random.nextInt(256)));
+    }
+    return hex.toString();
+  }
+}
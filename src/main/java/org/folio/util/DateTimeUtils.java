@@ -1,16 +1,87 @@
 package org.folio.util;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.folio.config.Constants.ISO18626_DATE_FORMAT;
 
 public class DateTimeUtils {
 
+  // Formatters are immutable and thread-safe, each pattern is compiled once
+  private static final Map<String, DateTimeFormatter> formatters = new ConcurrentHashMap<>(
+    Map.of(ISO18626_DATE_FORMAT, DateTimeFormatter.ofPattern(ISO18626_DATE_FORMAT)));
+
+  private static volatile Clock clock = Clock.systemDefaultZone();
+  private static volatile FormattedSecond lastIso18626;
+
+  private DateTimeUtils() {
+  }
+
   public static ZonedDateTime stringToDT(String input) {
     return ZonedDateTime.parse(input);
   }
 
   public static String dtToString(ZonedDateTime input, String pattern) {
-    DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);
-    return input.format(formatter);
+    return input.format(getFormatter(pattern));
+  }
+
+  public static DateTimeFormatter getFormatter(String pattern) {
+    return formatters.computeIfAbsent(pattern, DateTimeFormatter::ofPattern);
+  }
+
+  /**
+   * @return the current time of the clock in the given pattern
+   */
+  public static String now(String pattern) {
+    if (ISO18626_DATE_FORMAT.equals(pattern)) {
+      return nowIso18626();
+    }
+    return dtToString(ZonedDateTime.now(clock), pattern);
+  }
+
+  /**
+   * ISO18626 timestamps only go down to the second, so the value is formatted once per second and shared by every call
+   * made within that second.
+   *
+   * @return the current time of the clock in {@link org.folio.config.Constants#ISO18626_DATE_FORMAT}
+   */
+  public static String nowIso18626() {
+    Clock current = clock;
+    long second = Math.floorDiv(current.millis(), 1000L);
+    FormattedSecond last = lastIso18626;
+    if (Objects.nonNull(last) && last.second == second && last.clock == current) {
+      return last.value;
+    }
+    String value = dtToString(ZonedDateTime.ofInstant(Instant.ofEpochSecond(second), current.getZone()), ISO18626_DATE_FORMAT);
+    lastIso18626 = new FormattedSecond(current, second, value);
+    return value;
+  }
+
+  /**
+   * Replaces the clock timestamps are taken from, e.g. with a fixed clock in tests.
+   */
+  public static void setClock(Clock newClock) {
+    clock = Objects.requireNonNull(newClock);
+  }
+
+  public static Clock getClock() {
+    return clock;
+  }
+
+  private static class FormattedSecond {
+    private final Clock clock;
+    private final long second;
+    private final String value;
+
+    FormattedSecond(Clock clock, long second, String value) {
+      this.clock = clock;
+      this.second = second;
+      this.value = value;
+    }
   }
 }
@@ -0,0 +1,45 @@
+package org.folio.util;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.netty.buffer.ByteBufInputStream;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.EncodeException;
+import io.vertx.core.json.jackson.DatabindCodec;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps model classes straight to and from buffers, without going through a {@link io.vertx.core.json.JsonObject}. Uses
+ * the same object mapper as {@code JsonObject.mapTo} and {@code JsonObject.mapFrom}, with one reader and one writer built
+ * per class and reused.
+ */
+public class JsonCodec {
+
+  private static final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+  private static final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+  private JsonCodec() {
+  }
+
+  public static <T> T decode(Buffer buffer, Class<T> type) {
+    ObjectReader reader = readers.computeIfAbsent(type, t -> DatabindCodec.mapper().readerFor(t));
+    try (ByteBufInputStream in = new ByteBufInputStream(buffer.getByteBuf())) {
+      return reader.readValue(in);
+    } catch (IOException e) {
+      throw new DecodeException("Failed to decode " + type.getSimpleName() + ": " + e.getMessage(), e);
+    }
+  }
+
+  public static Buffer encode(Object value) {
+    ObjectWriter writer = writers.computeIfAbsent(value.getClass(), t -> DatabindCodec.mapper().writerFor(t));
+    try {
+      return Buffer.buffer(writer.writeValueAsBytes(value));
+    } catch (IOException e) {
+      throw new EncodeException("Failed to encode " + value.getClass().getSimpleName() + ": " + e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package org.folio.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Supplier;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import static org.folio.config.Constants.PAYLOAD_LOG_MAX_LENGTH;
+import static org.folio.config.Constants.PAYLOAD_LOG_SAMPLE_RATE;
+
+/**
+ * Logs request and response bodies of outgoing calls without paying for them on every call. A body is only turned into
+ * text when the entry is actually written, it is cut to a maximum length, and only a sample of the calls is logged. Each
+ * endpoint logs at the level of the longest configured prefix it starts with, or at DEBUG when none matches.
+ * <p>
+ * Configured with the system properties {@code payload.log.sampleRate} (0 to 1), {@code payload.log.maxLength} and
+ * {@code payload.log.levels}, e.g. {@code /ill-ra-storage/messages=INFO,/ill-connector=TRACE}.
+ */
+public class PayloadLogger {
+
+  private static final String TRUNCATED = "... (%d characters)";
+
+  private static final double sampleRate = Double.parseDouble(
+    System.getProperty("payload.log.sampleRate", String.valueOf(PAYLOAD_LOG_SAMPLE_RATE)));
+  private static final int maxLength = Integer.getInteger("payload.log.maxLength", PAYLOAD_LOG_MAX_LENGTH);
+  private static final Map<String, Level> levels = parseLevels(System.getProperty("payload.log.levels", ""));
+
+  private PayloadLogger() {
+  }
+
+  /**
+   * Logs the body of a call if its endpoint's level is enabled and the call is sampled.
+   *
+   * @param message log message, with a placeholder for the method, the endpoint and the body
+   * @param body    produces the body, only called when the entry is written
+   */
+  public static void log(Logger logger, String message, String method, String endpoint, Supplier<?> body) {
+    Level level = levelOf(endpoint);
+    if (!logger.isEnabled(level) || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+      return;
+    }
+    logger.log(level, message, () -> method, () -> endpoint, () -> truncate(body.get()));
+  }
+
+  /**
+   * @return the body cut to the maximum length once it is formatted, for messages that are always logged such as errors
+   */
+  public static Object truncated(Object body) {
+    return new Object() {
+      @Override
+      public String toString() {
+        return truncate(body);
+      }
+    };
+  }
+
+  private static String truncate(Object body) {
+    String text = String.valueOf(body);
+    return text.length() <= maxLength ? text : text.substring(0, maxLength) + String.format(TRUNCATED, text.length());
+  }
+
+  private static Level levelOf(String endpoint) {
+    return levels.entrySet().stream()
+      .filter(entry -> endpoint.startsWith(entry.getKey()))
+      .max(Comparator.comparingInt(entry -> entry.getKey().length()))
+      .map(Map.Entry::getValue)
+      .orElse(Level.DEBUG);
+  }
+
+  private static Map<String, Level> parseLevels(String config) {
+    return Arrays.stream(config.split(","))
+      .map(String::trim)
+      .filter(entry -> entry.contains("="))
+      .map(entry -> entry.split("=", 2))
+      .filter(pair -> StringUtils.isNotBlank(pair[0]))
+      .collect(Collectors.toMap(pair -> pair[0].trim(), pair -> Level.toLevel(pair[1].trim(), Level.DEBUG), (a, b) -> b));
+  }
+}
@@ -0,0 +1,79 @@
+package org.folio.util;
+
+import io.vertx.core.Context;
+import io.vertx.core.VertxException;
+import org.folio.exception.HttpException;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+public class RetryUtils {
+
+  private RetryUtils() {
+  }
+
+  /**
+   * Runs the action until it succeeds or has been attempted {@code maxAttempts} times, doubling the delay between attempts.
+   * Retries are scheduled with a Vert.x timer and run on the given context.
+   *
+   * @param context     Vert.X context the retries run on
+   * @param action      action to attempt
+   * @param maxAttempts maximum number of attempts, including the first one
+   * @param baseDelay   delay in milliseconds before the first retry
+   * @return the result of the first successful attempt, or the failure of the last one
+   */
+  public static <T> CompletableFuture<T> withBackoff(Context context, Supplier<CompletableFuture<T>> action, int maxAttempts,
+      long baseDelay) {
+    return withBackoff(context, action, maxAttempts, baseDelay, Long.MAX_VALUE, t -> true);
+  }
+
+  /**
+   * Runs the action until it succeeds, fails with an error that is not worth retrying or has been attempted
+   * {@code maxAttempts} times, doubling the delay between attempts up to {@code maxDelay}.
+   *
+   * @param context     Vert.X context the retries run on
+   * @param action      action to attempt
+   * @param maxAttempts maximum number of attempts, including the first one
+   * @param baseDelay   delay in milliseconds before the first retry
+   * @param maxDelay    longest delay in milliseconds between two attempts
+   * @param retryable   tells whether a failure is worth another attempt
+   * @return the result of the first successful attempt, or the failure of the last one
+   */
+  public static <T> CompletableFuture<T> withBackoff(Context context, Supplier<CompletableFuture<T>> action, int maxAttempts,
+      long baseDelay, long maxDelay, Predicate<Throwable> retryable) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    attempt(context, action, 1, maxAttempts, Math.min(baseDelay, maxDelay), maxDelay, retryable, future);
+    return future;
+  }
+
+  /**
+   * @return whether the failure is likely to go away on its own: the connection failed or timed out, or the other end
+   * answered with a 5xx
+   */
+  public static boolean isTransient(Throwable t) {
+    Throwable cause = t instanceof CompletionException && Objects.nonNull(t.getCause()) ? t.getCause() : t;
+    if (cause instanceof HttpException) {
+      return ((HttpException) cause).getCode() >= 500;
+    }
+    return cause instanceof IOException || cause instanceof TimeoutException || cause instanceof VertxException;
+  }
+
+  private static <T> void attempt(Context context, Supplier<CompletableFuture<T>> action, int attempt, int maxAttempts,
+      long delay, long maxDelay, Predicate<Throwable> retryable, CompletableFuture<T> future) {
+    action.get().whenComplete((result, t) -> {
+      if (Objects.isNull(t)) {
+        future.complete(result);
+      } else if (attempt >= maxAttempts || !retryable.test(t)) {
+        future.completeExceptionally(t);
+      } else {
+        context.owner().setTimer(delay, id -> context.runOnContext(v ->
+          attempt(context, action, attempt + 1, maxAttempts, Math.min(delay * 2, maxDelay), maxDelay, retryable, future)));
+      }
+    });
+  }
+}
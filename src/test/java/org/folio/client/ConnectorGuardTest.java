@@ -0,0 +1,164 @@
+package org.folio.client;
+
+import io.vertx.core.json.JsonObject;
+import org.folio.exception.HttpException;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ConnectorGuardTest {
+
+  private static final String CONNECTOR = "mod-ill-connector-1.0.0";
+  private static final long LONG_OPEN_DURATION = 60000;
+
+  @Test
+  public void circuitOpensAfterTheFailureThreshold() {
+    ConnectorGuard guard = new ConnectorGuard(3, LONG_OPEN_DURATION, 10);
+    AtomicInteger calls = new AtomicInteger();
+
+    for (int i = 0; i < 3; i++) {
+      guard.call(CONNECTOR, () -> failing(calls));
+    }
+    CompletableFuture<String> rejected = guard.call(CONNECTOR, () -> succeeding(calls));
+
+    assertEquals(3, calls.get());
+    assertEquals(503, statusOf(rejected));
+    assertEquals("OPEN", state(guard));
+  }
+
+  @Test
+  public void successResetsTheFailureCount() {
+    ConnectorGuard guard = new ConnectorGuard(3, LONG_OPEN_DURATION, 10);
+    AtomicInteger calls = new AtomicInteger();
+
+    guard.call(CONNECTOR, () -> failing(calls));
+    guard.call(CONNECTOR, () -> failing(calls));
+    guard.call(CONNECTOR, () -> succeeding(calls));
+    guard.call(CONNECTOR, () -> failing(calls));
+
+    assertEquals("CLOSED", state(guard));
+  }
+
+  @Test
+  public void clientErrorsDoNotCountAsFailures() {
+    ConnectorGuard guard = new ConnectorGuard(1, LONG_OPEN_DURATION, 10);
+
+    guard.call(CONNECTOR, () -> CompletableFuture.failedFuture(new HttpException(404, "Not found")));
+
+    assertEquals("CLOSED", state(guard));
+  }
+
+  @Test
+  public void failedResultsCountAsFailures() {
+    ConnectorGuard guard = new ConnectorGuard(1, LONG_OPEN_DURATION, 10);
+
+    guard.call(CONNECTOR, () -> CompletableFuture.completedFuture(500), status -> status >= 500);
+
+    assertEquals("OPEN", state(guard));
+  }
+
+  @Test
+  public void successfulProbeClosesTheCircuit() {
+    ConnectorGuard guard = new ConnectorGuard(1, 0, 10);
+    AtomicInteger calls = new AtomicInteger();
+
+    guard.call(CONNECTOR, () -> failing(calls));
+    CompletableFuture<String> probe = new CompletableFuture<>();
+    guard.call(CONNECTOR, () -> probe);
+    assertEquals("HALF_OPEN", state(guard));
+    CompletableFuture<String> duringProbe = guard.call(CONNECTOR, () -> succeeding(calls));
+    probe.complete("ok");
+
+    assertEquals(503, statusOf(duringProbe));
+    assertEquals("CLOSED", state(guard));
+  }
+
+  @Test
+  public void failedProbeOpensTheCircuitAgain() {
+    ConnectorGuard guard = new ConnectorGuard(1, 0, 10);
+    AtomicInteger calls = new AtomicInteger();
+
+    guard.call(CONNECTOR, () -> failing(calls));
+    CompletableFuture<String> probe = new CompletableFuture<>();
+    guard.call(CONNECTOR, () -> probe);
+    probe.completeExceptionally(new IllegalStateException("Connector down"));
+
+    assertEquals("OPEN", state(guard));
+  }
+
+  @Test
+  public void lateSuccessFromBeforeTheCircuitOpenedIsIgnored() {
+    ConnectorGuard guard = new ConnectorGuard(1, LONG_OPEN_DURATION, 10);
+    AtomicInteger calls = new AtomicInteger();
+
+    CompletableFuture<String> slow = new CompletableFuture<>();
+    guard.call(CONNECTOR, () -> slow);
+    guard.call(CONNECTOR, () -> failing(calls));
+    assertEquals("OPEN", state(guard));
+    slow.complete("ok");
+
+    assertEquals("OPEN", state(guard));
+    assertEquals(0, guard.getStats().getJsonObject(CONNECTOR).getInteger("inFlight").intValue());
+  }
+
+  @Test
+  public void bulkheadRejectsCallsBeyondTheLimit() {
+    ConnectorGuard guard = new ConnectorGuard(5, LONG_OPEN_DURATION, 2);
+    CompletableFuture<String> first = new CompletableFuture<>();
+    CompletableFuture<String> second = new CompletableFuture<>();
+
+    guard.call(CONNECTOR, () -> first);
+    guard.call(CONNECTOR, () -> second);
+    CompletableFuture<String> rejected = guard.call(CONNECTOR, () -> new CompletableFuture<>());
+    first.complete("ok");
+    CompletableFuture<String> admitted = guard.call(CONNECTOR, () -> CompletableFuture.completedFuture("ok"));
+
+    assertEquals(503, statusOf(rejected));
+    assertEquals("ok", admitted.join());
+    JsonObject stats = guard.getStats().getJsonObject(CONNECTOR);
+    assertEquals(1L, (long) stats.getLong("rejected"));
+    assertEquals(1, stats.getInteger("inFlight").intValue());
+  }
+
+  @Test
+  public void connectorsAreGuardedSeparately() {
+    ConnectorGuard guard = new ConnectorGuard(1, LONG_OPEN_DURATION, 10);
+    AtomicInteger calls = new AtomicInteger();
+
+    guard.call(CONNECTOR, () -> failing(calls));
+    CompletableFuture<String> other = guard.call("mod-ill-connector-2.0.0", () -> succeeding(calls));
+
+    assertEquals("ok", other.join());
+  }
+
+  private static CompletableFuture<String> failing(AtomicInteger calls) {
+    calls.incrementAndGet();
+    return CompletableFuture.failedFuture(new IllegalStateException("Connector down"));
+  }
+
+  private static CompletableFuture<String> succeeding(AtomicInteger calls) {
+    calls.incrementAndGet();
+    return CompletableFuture.completedFuture("ok");
+  }
+
+  private static String state(ConnectorGuard guard) {
+    return guard.getStats().getJsonObject(CONNECTOR).getString("state");
+  }
+
+  private static int statusOf(CompletableFuture<?> future) {
+    try {
+      future.join();
+      fail("The call should have been rejected");
+    } catch (CompletionException e) {
+      assertTrue(e.getCause() instanceof HttpException);
+      return ((HttpException) e.getCause()).getCode();
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,78 @@
+package org.folio.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BaseServiceTest {
+
+  private static final Logger logger = LogManager.getLogger(BaseServiceTest.class);
+
+  @Test
+  public void chunksFitTheMaximumQueryLength() {
+    List<String> ids = randomIds(100);
+    int maxQueryLength = 2000;
+
+    List<List<String>> chunks = BaseService.chunkIds(ids, maxQueryLength, logger);
+
+    assertTrue(chunks.size() > 1);
+    chunks.forEach(chunk -> assertTrue(queryLength(chunk) <= maxQueryLength));
+  }
+
+  @Test
+  public void chunksKeepEveryIdInOrder() {
+    List<String> ids = randomIds(100);
+
+    List<List<String>> chunks = BaseService.chunkIds(ids, 500, logger);
+
+    assertEquals(ids, chunks.stream().flatMap(List::stream).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void chunksAreFilledBeforeANewOneIsStarted() {
+    List<String> ids = randomIds(100);
+    int maxQueryLength = 1000;
+
+    List<List<String>> chunks = BaseService.chunkIds(ids, maxQueryLength, logger);
+
+    for (int i = 0; i < chunks.size() - 1; i++) {
+      List<String> grown = new ArrayList<>(chunks.get(i));
+      grown.add(chunks.get(i + 1).get(0));
+      assertTrue(queryLength(grown) > maxQueryLength);
+    }
+  }
+
+  @Test
+  public void idTooLongForTheQueryGetsAChunkOfItsOwn() {
+    List<String> ids = randomIds(3);
+
+    List<List<String>> chunks = BaseService.chunkIds(ids, 10, logger);
+
+    assertEquals(3, chunks.size());
+    chunks.forEach(chunk -> assertEquals(1, chunk.size()));
+  }
+
+  @Test
+  public void noIdsGiveNoChunks() {
+    assertTrue(BaseService.chunkIds(List.of(), 2000, logger).isEmpty());
+  }
+
+  private static int queryLength(List<String> chunk) {
+    return BaseService.encodeQuery(BaseService.convertIdsToCqlQuery(chunk), logger).length();
+  }
+
+  private static List<String> randomIds(int count) {
+    return IntStream.range(0, count)
+      .mapToObj(i -> UUID.randomUUID().toString())
+      .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,118 @@
+package org.folio.service.illconnector;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ConnectorCacheTest {
+
+  private static final String TENANT = "diku";
+  private static final String SEARCH = "ill-connector-search";
+
+  @Test
+  public void concurrentMissesShareOneLoad() {
+    ConnectorCache cache = new ConnectorCache(60, 60);
+    AtomicInteger loads = new AtomicInteger();
+    CompletableFuture<List<String>> pending = new CompletableFuture<>();
+
+    CompletableFuture<List<String>> first = cache.get(TENANT, SEARCH, () -> {
+      loads.incrementAndGet();
+      return pending;
+    });
+    CompletableFuture<List<String>> second = cache.get(TENANT, SEARCH, () -> {
+      loads.incrementAndGet();
+      return pending;
+    });
+    pending.complete(List.of("mod-ill-connector-1.0.0"));
+
+    assertEquals(1, loads.get());
+    assertEquals(List.of("mod-ill-connector-1.0.0"), first.join());
+    assertEquals(List.of("mod-ill-connector-1.0.0"), second.join());
+  }
+
+  @Test
+  public void loadedListIsServedFromTheCache() {
+    ConnectorCache cache = new ConnectorCache(60, 60);
+    AtomicInteger loads = new AtomicInteger();
+
+    cache.get(TENANT, SEARCH, () -> load(loads, "mod-ill-connector-1.0.0")).join();
+    List<String> cached = cache.get(TENANT, SEARCH, () -> load(loads, "mod-ill-connector-2.0.0")).join();
+
+    assertEquals(1, loads.get());
+    assertEquals(List.of("mod-ill-connector-1.0.0"), cached);
+  }
+
+  @Test
+  public void failedLoadIsNotCached() {
+    ConnectorCache cache = new ConnectorCache(60, 60);
+    AtomicInteger loads = new AtomicInteger();
+
+    CompletableFuture<List<String>> failed = cache.get(TENANT, SEARCH,
+      () -> CompletableFuture.failedFuture(new IllegalStateException("Okapi down")));
+    List<String> retried = cache.get(TENANT, SEARCH, () -> load(loads, "mod-ill-connector-1.0.0")).join();
+
+    assertTrue(failed.isCompletedExceptionally());
+    assertEquals(1, loads.get());
+    assertEquals(List.of("mod-ill-connector-1.0.0"), retried);
+  }
+
+  @Test
+  public void throwingLoaderFailsTheLoadAndReleasesTheKey() {
+    ConnectorCache cache = new ConnectorCache(60, 60);
+    AtomicInteger loads = new AtomicInteger();
+
+    CompletableFuture<List<String>> failed = cache.get(TENANT, SEARCH, () -> {
+      throw new IllegalStateException("No Okapi URL");
+    });
+    try {
+      failed.join();
+      fail("The load should have failed");
+    } catch (CompletionException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+    List<String> retried = cache.get(TENANT, SEARCH, () -> load(loads, "mod-ill-connector-1.0.0")).join();
+
+    assertEquals(1, loads.get());
+    assertEquals(List.of("mod-ill-connector-1.0.0"), retried);
+  }
+
+  @Test
+  public void loadRacingAnInvalidationIsNotKept() {
+    ConnectorCache cache = new ConnectorCache(60, 60);
+    AtomicInteger loads = new AtomicInteger();
+    CompletableFuture<List<String>> pending = new CompletableFuture<>();
+
+    CompletableFuture<List<String>> stale = cache.get(TENANT, SEARCH, () -> pending);
+    cache.invalidate(TENANT);
+    pending.complete(List.of("mod-ill-connector-1.0.0"));
+    List<String> fresh = cache.get(TENANT, SEARCH, () -> load(loads, "mod-ill-connector-2.0.0")).join();
+
+    assertEquals(List.of("mod-ill-connector-1.0.0"), stale.join());
+    assertEquals(1, loads.get());
+    assertEquals(List.of("mod-ill-connector-2.0.0"), fresh);
+  }
+
+  @Test
+  public void tenantsAreCachedSeparately() {
+    ConnectorCache cache = new ConnectorCache(60, 60);
+    AtomicInteger loads = new AtomicInteger();
+
+    cache.get(TENANT, SEARCH, () -> load(loads, "mod-ill-connector-1.0.0")).join();
+    List<String> other = cache.get("other", SEARCH, () -> load(loads, "mod-ill-connector-2.0.0")).join();
+
+    assertEquals(2, loads.get());
+    assertEquals(List.of("mod-ill-connector-2.0.0"), other);
+  }
+
+  private static CompletableFuture<List<String>> load(AtomicInteger loads, String connector) {
+    loads.incrementAndGet();
+    return CompletableFuture.completedFuture(List.of(connector));
+  }
+}
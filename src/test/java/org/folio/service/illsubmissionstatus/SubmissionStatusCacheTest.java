@@ -0,0 +1,133 @@
+package org.folio.service.illsubmissionstatus;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.folio.rest.jaxrs.model.SubmissionStatuses;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SubmissionStatusCacheTest {
+
+  private static final String TENANT = "diku";
+  private static final String NEW_ID = "6ef6d1a4-0c2c-4f58-9a2f-4b3c4a1c6a01";
+  private static final String CLOSED_ID = "6ef6d1a4-0c2c-4f58-9a2f-4b3c4a1c6a02";
+
+  @Test
+  public void concurrentMissesShareOneLoad() {
+    SubmissionStatusCache cache = new SubmissionStatusCache(10, 60);
+    AtomicInteger loads = new AtomicInteger();
+    CompletableFuture<JsonObject> pending = new CompletableFuture<>();
+
+    CompletableFuture<SubmissionStatusCache.TenantStatuses> first = cache.get(TENANT, () -> {
+      loads.incrementAndGet();
+      return pending;
+    });
+    CompletableFuture<SubmissionStatusCache.TenantStatuses> second = cache.get(TENANT, () -> {
+      loads.incrementAndGet();
+      return pending;
+    });
+    pending.complete(statuses());
+
+    assertEquals(1, loads.get());
+    assertSame(first.join(), second.join());
+  }
+
+  @Test
+  public void throwingLoaderFailsTheLoadAndReleasesTheTenant() {
+    SubmissionStatusCache cache = new SubmissionStatusCache(10, 60);
+
+    CompletableFuture<SubmissionStatusCache.TenantStatuses> failed = cache.get(TENANT, () -> {
+      throw new IllegalStateException("No Okapi URL");
+    });
+    SubmissionStatusCache.TenantStatuses loaded = cache.get(TENANT,
+      () -> CompletableFuture.completedFuture(statuses())).join();
+
+    assertTrue(failed.isCompletedExceptionally());
+    assertEquals(NEW_ID, loaded.findId("New"));
+  }
+
+  @Test
+  public void invalidatedTenantIsLoadedAgain() {
+    SubmissionStatusCache cache = new SubmissionStatusCache(10, 60);
+    AtomicInteger loads = new AtomicInteger();
+
+    cache.get(TENANT, () -> load(loads)).join();
+    cache.invalidate(TENANT);
+    cache.get(TENANT, () -> load(loads)).join();
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void loadRacingAnInvalidationIsNotKept() {
+    SubmissionStatusCache cache = new SubmissionStatusCache(10, 60);
+    AtomicInteger loads = new AtomicInteger();
+    CompletableFuture<JsonObject> pending = new CompletableFuture<>();
+
+    CompletableFuture<SubmissionStatusCache.TenantStatuses> stale = cache.get(TENANT, () -> pending);
+    cache.invalidate(TENANT);
+    pending.complete(new JsonObject().put("submissionStatuses", new JsonArray()
+      .add(new JsonObject().put("id", NEW_ID).put("name", "Old name"))));
+    SubmissionStatusCache.TenantStatuses fresh = cache.get(TENANT, () -> load(loads)).join();
+
+    assertEquals(NEW_ID, stale.join().findId("Old name"));
+    assertEquals(1, loads.get());
+    assertEquals(NEW_ID, fresh.findId("New"));
+    assertNull(fresh.findId("Old name"));
+  }
+
+  @Test
+  public void collectionIsACopyForTheCaller() {
+    SubmissionStatusCache cache = new SubmissionStatusCache(10, 60);
+    SubmissionStatusCache.TenantStatuses statuses = cache.get(TENANT,
+      () -> CompletableFuture.completedFuture(statuses())).join();
+
+    statuses.getCollection(0, 10).getSubmissionStatuses().clear();
+
+    JsonObject again = JsonObject.mapFrom(statuses.getCollection(0, 10));
+    assertEquals(2, again.getJsonArray("submissionStatuses").size());
+    assertEquals("New", again.getJsonArray("submissionStatuses").getJsonObject(0).getString("name"));
+    assertEquals(2, (int) again.getInteger("totalRecords"));
+  }
+
+  @Test
+  public void collectionIsPaged() {
+    SubmissionStatusCache cache = new SubmissionStatusCache(10, 60);
+    SubmissionStatusCache.TenantStatuses statuses = cache.get(TENANT,
+      () -> CompletableFuture.completedFuture(statuses())).join();
+
+    SubmissionStatuses page = statuses.getCollection(1, 10);
+
+    assertEquals(1, page.getSubmissionStatuses().size());
+    assertEquals(CLOSED_ID, page.getSubmissionStatuses().get(0).getId());
+  }
+
+  @Test
+  public void statusIsFoundByIdOrName() {
+    SubmissionStatusCache cache = new SubmissionStatusCache(10, 60);
+    SubmissionStatusCache.TenantStatuses statuses = cache.get(TENANT,
+      () -> CompletableFuture.completedFuture(statuses())).join();
+
+    assertEquals(CLOSED_ID, statuses.findId(CLOSED_ID));
+    assertEquals(CLOSED_ID, statuses.findId("closed"));
+    assertNull(statuses.findId("Unknown"));
+  }
+
+  private static CompletableFuture<JsonObject> load(AtomicInteger loads) {
+    loads.incrementAndGet();
+    return CompletableFuture.completedFuture(statuses());
+  }
+
+  private static JsonObject statuses() {
+    return new JsonObject().put("submissionStatuses", new JsonArray()
+      .add(new JsonObject().put("id", NEW_ID).put("name", "New"))
+      .add(new JsonObject().put("id", CLOSED_ID).put("name", "Closed")));
+  }
+}
@@ -0,0 +1,109 @@
+package org.folio.service.illsupplingagency;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SearchResponseCacheTest {
+
+  private static final String KEY = SearchResponseCache.key("diku", "mod-ill-connector-1.0.0", "title=java", 0, 10);
+
+  @Test
+  public void concurrentMissesShareOneConnectorCall() {
+    SearchResponseCache cache = new SearchResponseCache(10, 60);
+    AtomicInteger calls = new AtomicInteger();
+    CompletableFuture<JsonObject> pending = new CompletableFuture<>();
+
+    CompletableFuture<JsonObject> first = cache.get(KEY, () -> {
+      calls.incrementAndGet();
+      return pending;
+    });
+    CompletableFuture<JsonObject> second = cache.get(KEY, () -> {
+      calls.incrementAndGet();
+      return pending;
+    });
+    JsonObject response = new JsonObject().put("totalRecords", 1);
+    pending.complete(response);
+
+    assertEquals(1, calls.get());
+    assertSame(response, first.join());
+    assertSame(response, second.join());
+  }
+
+  @Test
+  public void cachedResponseCountsAsAHit() {
+    SearchResponseCache cache = new SearchResponseCache(10, 60);
+    JsonObject response = new JsonObject().put("totalRecords", 1);
+
+    cache.get(KEY, () -> CompletableFuture.completedFuture(response)).join();
+    JsonObject cached = cache.get(KEY, () -> CompletableFuture.failedFuture(new IllegalStateException())).join();
+
+    assertSame(response, cached);
+    assertEquals(1L, (long) cache.getStats().getLong("hits"));
+    assertEquals(1L, (long) cache.getStats().getLong("misses"));
+  }
+
+  @Test
+  public void failedSearchIsNotCached() {
+    SearchResponseCache cache = new SearchResponseCache(10, 60);
+
+    CompletableFuture<JsonObject> failed = cache.get(KEY,
+      () -> CompletableFuture.failedFuture(new IllegalStateException("Connector down")));
+
+    assertTrue(failed.isCompletedExceptionally());
+    assertFalse(cache.contains(KEY));
+  }
+
+  @Test
+  public void throwingLoaderFailsTheSearchAndReleasesTheKey() {
+    SearchResponseCache cache = new SearchResponseCache(10, 60);
+    JsonObject response = new JsonObject().put("totalRecords", 1);
+
+    CompletableFuture<JsonObject> failed = cache.get(KEY, () -> {
+      throw new IllegalStateException("No Okapi URL");
+    });
+    JsonObject retried = cache.get(KEY, () -> CompletableFuture.completedFuture(response)).join();
+
+    assertTrue(failed.isCompletedExceptionally());
+    assertSame(response, retried);
+  }
+
+  @Test
+  public void prefetchIsNotCountedAsAMiss() {
+    SearchResponseCache cache = new SearchResponseCache(10, 60);
+    JsonObject response = new JsonObject().put("totalRecords", 1);
+
+    cache.prefetch(KEY, () -> CompletableFuture.completedFuture(response)).join();
+    JsonObject cached = cache.get(KEY, () -> CompletableFuture.failedFuture(new IllegalStateException())).join();
+
+    assertSame(response, cached);
+    assertEquals(1L, (long) cache.getStats().getLong("prefetches"));
+    assertEquals(0L, (long) cache.getStats().getLong("misses"));
+    assertEquals(1L, (long) cache.getStats().getLong("hits"));
+  }
+
+  @Test
+  public void leastRecentlyUsedResponseIsEvicted() {
+    SearchResponseCache cache = new SearchResponseCache(1, 60);
+    String otherKey = SearchResponseCache.key("diku", "mod-ill-connector-1.0.0", "title=java", 10, 10);
+
+    cache.put(KEY, new JsonObject());
+    cache.put(otherKey, new JsonObject());
+
+    assertFalse(cache.contains(KEY));
+    assertTrue(cache.contains(otherKey));
+    assertEquals(1L, (long) cache.getStats().getLong("evictions"));
+  }
+
+  @Test
+  public void keyIgnoresWhitespaceDifferencesInTheQuery() {
+    assertEquals(KEY, SearchResponseCache.key("diku", "mod-ill-connector-1.0.0", "  title=java ", 0, 10));
+  }
+}
@@ -0,0 +1,120 @@
+package org.folio.service.illsupplingagency;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TENANT;
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TOKEN;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SupplierMessageWriterTest {
+
+  private static final long LONG_DELAY = 60000;
+
+  private static Vertx vertx;
+  private static Context context;
+
+  private final List<List<Map<String, String>>> batches = Collections.synchronizedList(new ArrayList<>());
+
+  @BeforeClass
+  public static void setUp() {
+    vertx = Vertx.vertx();
+    context = vertx.getOrCreateContext();
+  }
+
+  @AfterClass
+  public static void tearDown() {
+    vertx.close();
+  }
+
+  @Test
+  public void messagesOfTheSameCallerShareABatch() {
+    SupplierMessageWriter writer = new SupplierMessageWriter(2, LONG_DELAY, this::storeAll);
+
+    CompletableFuture<String> first = writer.write(message("a"), context, headers("diku", "token-1", "request-1"));
+    CompletableFuture<String> second = writer.write(message("b"), context, headers("diku", "token-1", "request-2"));
+
+    assertEquals("a", first.join());
+    assertEquals("b", second.join());
+    assertEquals(1, batches.size());
+    assertEquals(List.of("request-1", "request-2"), requestIds(batches.get(0)));
+  }
+
+  @Test
+  public void messagesOfDifferentCallersAreWrittenApart() {
+    SupplierMessageWriter writer = new SupplierMessageWriter(2, 10, this::storeAll);
+
+    CompletableFuture<String> first = writer.write(message("a"), context, headers("diku", "token-1", "request-1"));
+    CompletableFuture<String> second = writer.write(message("b"), context, headers("diku", "token-2", "request-2"));
+    CompletableFuture<String> third = writer.write(message("c"), context, headers("other", "token-1", "request-3"));
+
+    assertEquals("a", first.join());
+    assertEquals("b", second.join());
+    assertEquals("c", third.join());
+    assertEquals(3, batches.size());
+    batches.forEach(batch -> assertEquals(1, batch.size()));
+  }
+
+  @Test
+  public void partialBatchIsWrittenAfterTheDelay() {
+    SupplierMessageWriter writer = new SupplierMessageWriter(50, 10, this::storeAll);
+
+    String id = writer.write(message("a"), context, headers("diku", "token-1", "request-1")).join();
+
+    assertEquals("a", id);
+    assertEquals(1, batches.size());
+  }
+
+  @Test
+  public void eachMessageGetsItsOwnOutcome() {
+    SupplierMessageWriter writer = new SupplierMessageWriter(2, LONG_DELAY, (messages, headers) -> List.of(
+      CompletableFuture.completedFuture(messages.get(0).getString("id")),
+      CompletableFuture.failedFuture(new IllegalStateException("Storage rejected the message"))));
+
+    CompletableFuture<String> first = writer.write(message("a"), context, headers("diku", "token-1", "request-1"));
+    CompletableFuture<String> second = writer.write(message("b"), context, headers("diku", "token-1", "request-2"));
+
+    assertEquals("a", first.join());
+    try {
+      second.join();
+      fail("Expected the second message to fail");
+    } catch (CompletionException e) {
+      assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  private List<CompletableFuture<String>> storeAll(List<JsonObject> messages, List<Map<String, String>> headers) {
+    batches.add(headers);
+    return messages.stream()
+      .map(message -> CompletableFuture.completedFuture(message.getString("id")))
+      .collect(Collectors.toList());
+  }
+
+  private static JsonObject message(String id) {
+    return new JsonObject().put("id", id);
+  }
+
+  private static Map<String, String> headers(String tenant, String token, String requestId) {
+    return Map.of(OKAPI_HEADER_TENANT, tenant, OKAPI_HEADER_TOKEN, token, "x-okapi-request-id", requestId);
+  }
+
+  private static List<String> requestIds(List<Map<String, String>> headers) {
+    return headers.stream()
+      .map(h -> h.get("x-okapi-request-id"))
+      .collect(Collectors.toList());
+  }
+}
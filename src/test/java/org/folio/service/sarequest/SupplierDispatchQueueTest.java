@@ -0,0 +1,249 @@
+package org.folio.service.sarequest;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.folio.exception.HttpException;
+import org.folio.rest.jaxrs.model.Request;
+import org.folio.rest.jaxrs.model.Requests;
+import org.folio.rest.jaxrs.model.SaRequestRequest;
+import org.folio.rest.jaxrs.model.SaRequestResponse;
+import org.folio.rest.jaxrs.model.Submission;
+import org.folio.rest.jaxrs.model.SubmissionStatus;
+import org.folio.rest.jaxrs.model.SubmissionStatuses;
+import org.folio.rest.jaxrs.model.Submissions;
+import org.folio.service.illsubmission.IllsubmissionService;
+import org.folio.service.illsubmissionstatus.IllsubmissionstatusService;
+import org.folio.service.illsupplingagency.IllSupplyingAgencyService;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TENANT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class SupplierDispatchQueueTest {
+
+  private static final String REQUEST_ID = "2f8c1a6e-3b7d-4e9a-8c5f-1d0e6b4a7c92";
+  private static final String SUBMISSION_ID = "7a4e9c2d-5f1b-4a8e-b3c6-0d9f2e7a1b54";
+  private static final String DEAD_LETTER_STATUS_ID = "c3e5a7b9-1d2f-4a6c-8e0b-5f7d9a1c3e2b";
+
+  private static Vertx vertx;
+  private static Context context;
+
+  private StubSupplyingAgencyService supplier;
+  private StubSubmissionService submissions;
+  private SupplierDispatchQueue queue;
+
+  @BeforeClass
+  public static void setUpClass() {
+    System.setProperty("sa.request.queue.capacity", "2");
+    System.setProperty("sa.request.retry.maxAttempts", "3");
+    System.setProperty("sa.request.retry.baseDelay", "1");
+    System.setProperty("sa.request.retry.maxDelay", "10");
+    vertx = Vertx.vertx();
+    context = vertx.getOrCreateContext();
+  }
+
+  @AfterClass
+  public static void tearDownClass() {
+    System.clearProperty("sa.request.queue.capacity");
+    System.clearProperty("sa.request.retry.maxAttempts");
+    System.clearProperty("sa.request.retry.baseDelay");
+    System.clearProperty("sa.request.retry.maxDelay");
+    vertx.close();
+  }
+
+  @Before
+  public void setUp() throws ReflectiveOperationException {
+    supplier = new StubSupplyingAgencyService();
+    submissions = new StubSubmissionService();
+    queue = new SupplierDispatchQueue();
+    inject(queue, "illSupplyingAgencyService", supplier);
+    inject(queue, "illsubmissionService", submissions);
+    inject(queue, "illsubmissionstatusService", new StubSubmissionStatusService());
+  }
+
+  @Test
+  public void transientFailureIsRetriedUntilTheSupplierAccepts() {
+    supplier.failures.add(new HttpException(503, "Unavailable"));
+
+    dispatch();
+
+    await().atMost(1000, MILLISECONDS).until(() -> queue.getStats().getInteger("inFlight") == 0);
+    assertEquals(2, supplier.sends.get());
+    assertNull(submissions.statusOf(SUBMISSION_ID));
+  }
+
+  @Test
+  public void rejectedDispatchIsDeadLetteredWithoutRetry() {
+    supplier.failures.add(new HttpException(400, "Unknown supplier"));
+
+    dispatch();
+
+    await().atMost(1000, MILLISECONDS).until(() -> Objects.nonNull(submissions.statusOf(SUBMISSION_ID)));
+    assertEquals(1, supplier.sends.get());
+    assertEquals(DEAD_LETTER_STATUS_ID, submissions.statusOf(SUBMISSION_ID));
+  }
+
+  @Test
+  public void dispatchIsDeadLetteredOnceTheAttemptsAreUsedUp() {
+    supplier.failures.add(new HttpException(503, "Unavailable"));
+    supplier.failures.add(new HttpException(502, "Bad gateway"));
+    supplier.failures.add(new HttpException(503, "Unavailable"));
+
+    dispatch();
+
+    await().atMost(1000, MILLISECONDS).until(() -> Objects.nonNull(submissions.statusOf(SUBMISSION_ID)));
+    assertEquals(3, supplier.sends.get());
+    assertEquals(DEAD_LETTER_STATUS_ID, submissions.statusOf(SUBMISSION_ID));
+  }
+
+  @Test
+  public void fullQueueTurnsRequestsAway() {
+    queue.reserve();
+    queue.reserve();
+
+    try {
+      queue.reserve();
+      fail("Expected the queue to be full");
+    } catch (HttpException e) {
+      assertEquals(503, e.getCode());
+    }
+    queue.release();
+    queue.reserve();
+    assertEquals(2, (int) queue.getStats().getInteger("reserved"));
+  }
+
+  private void dispatch() {
+    queue.reserve();
+    queue.enqueue(new Request().withId(REQUEST_ID).withSubmissionId(SUBMISSION_ID), new SaRequestRequest(), context,
+      Map.of(OKAPI_HEADER_TENANT, "diku"));
+  }
+
+  private static void inject(Object target, String name, Object value) throws ReflectiveOperationException {
+    Field field = target.getClass().getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(target, value);
+  }
+
+  // Fails the next sends with the queued failures, then accepts
+  private static class StubSupplyingAgencyService extends IllSupplyingAgencyService {
+    private final Deque<Throwable> failures = new ArrayDeque<>();
+    private final AtomicInteger sends = new AtomicInteger();
+
+    @Override
+    public synchronized CompletableFuture<SaRequestResponse> sendSupplierRequest(JsonObject submission, Context context,
+        Map<String, String> headers) {
+      sends.incrementAndGet();
+      Throwable failure = failures.poll();
+      if (Objects.nonNull(failure)) {
+        return CompletableFuture.failedFuture(failure);
+      }
+      return CompletableFuture.completedFuture(new SaRequestResponse());
+    }
+  }
+
+  private static class StubSubmissionService implements IllsubmissionService {
+    private final Map<String, String> statuses = new ConcurrentHashMap<>();
+
+    private String statusOf(String id) {
+      return statuses.get(id);
+    }
+
+    @Override
+    public CompletableFuture<Submission> getSubmissionById(String id, Context context, Map<String, String> headers) {
+      return CompletableFuture.completedFuture(new Submission().withId(id));
+    }
+
+    @Override
+    public CompletableFuture<Void> updateSubmissionById(String id, Submission updatedSubmission, Context context,
+        Map<String, String> headers) {
+      statuses.put(id, updatedSubmission.getStatusId());
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Submission> createSubmission(Submission submission, Context context, Map<String, String> headers) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<Submissions> getSubmissions(int offset, int limit, String lang, String query, Context context,
+        Map<String, String> headers) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<Submissions> getSubmissionsByIds(List<String> ids, Context context, Map<String, String> headers) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteSubmissionById(String id, Context context, Map<String, String> headers) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<Requests> getSubmissionRequestsById(String id, Context context, Map<String, String> headers) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  // Knows only the dead letter status, by its default name
+  private static class StubSubmissionStatusService implements IllsubmissionstatusService {
+
+    @Override
+    public CompletableFuture<String> findSubmissionStatusId(String idOrName, Context context, Map<String, String> headers) {
+      return CompletableFuture.completedFuture("Supplier unreachable".equals(idOrName) ? DEAD_LETTER_STATUS_ID : null);
+    }
+
+    @Override
+    public CompletableFuture<SubmissionStatus> createSubmissionStatus(SubmissionStatus status, Context context,
+        Map<String, String> headers) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<SubmissionStatus> getSubmissionStatusById(String id, Context context, Map<String, String> headers) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<SubmissionStatuses> getSubmissionStatuses(int offset, int limit, String lang, Context context,
+        Map<String, String> headers) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<Void> updateSubmissionStatusById(String id, SubmissionStatus updatedStatus, Context context,
+        Map<String, String> headers) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteSubmissionStatusById(String id, Context context, Map<String, String> headers) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<String> getInitialSubmissionStatusId(Context context, Map<String, String> headers) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,229 @@
+package org.folio.service.saupdate;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.folio.exception.HttpException;
+import org.folio.rest.jaxrs.model.Request;
+import org.folio.rest.jaxrs.model.Requests;
+import org.folio.rest.jaxrs.model.SaMessageRequest;
+import org.folio.rest.jaxrs.model.SaMessageResponse;
+import org.folio.rest.jaxrs.model.supplying_agency_message_storage.request.SupplyingAgencyMessageStorageRequest;
+import org.folio.rest.jaxrs.model.supplying_agency_message_storage.response.SupplyingAgencyMessageStorageResponse;
+import org.folio.service.illrequest.IllrequestService;
+import org.folio.service.illsupplingagency.IllSupplyingAgencyService;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.folio.rest.RestVerticle.OKAPI_HEADER_TENANT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class SaUpdatePipelineTest {
+
+  private static final String REQUEST_ID = "9f1d3e59-6f4b-4c2a-9d7e-3c0b5a8e21c4";
+  private static final String SUPPLIER_REQUEST_ID = "SUP-000123";
+  private static final String DUPLICATE = "Key (id)=(5a3c7f02-8d2b-3c8e-9e4f-2a1b0c9d8e7f) already exists";
+
+  private static Vertx vertx;
+  private static Context context;
+
+  private StubSupplyingAgencyService storage;
+  private StubRequestService requests;
+  private SaUpdatePipeline pipeline;
+
+  @BeforeClass
+  public static void setUpClass() {
+    System.setProperty("sa.update.retry.baseDelay", "1");
+    vertx = Vertx.vertx();
+    context = vertx.getOrCreateContext();
+  }
+
+  @AfterClass
+  public static void tearDownClass() {
+    System.clearProperty("sa.update.retry.baseDelay");
+    vertx.close();
+  }
+
+  @Before
+  public void setUp() throws ReflectiveOperationException {
+    storage = new StubSupplyingAgencyService();
+    requests = new StubRequestService();
+    pipeline = new SaUpdatePipeline();
+    inject(pipeline, "illSupplyingAgencyService", storage);
+    inject(pipeline, "illrequestService", requests);
+  }
+
+  @Test
+  public void retryFindingTheMessageStoredIsAccepted() {
+    storage.failures.add(new HttpException(503, "Unavailable"));
+    storage.failures.add(new HttpException(422, DUPLICATE));
+
+    SaMessageResponse confirmation = pipeline.ingest(message(), context, headers()).join();
+
+    assertNotNull(confirmation.getHeader());
+    assertEquals(2, storage.calls.size());
+    assertEquals(storage.calls.get(0), storage.calls.get(1));
+  }
+
+  @Test
+  public void duplicateOnTheFirstAttemptIsRejected() {
+    storage.failures.add(new HttpException(422, DUPLICATE));
+
+    CompletableFuture<SaMessageResponse> confirmation = pipeline.ingest(message(), context, headers());
+
+    assertEquals(422, statusOf(confirmation));
+    assertEquals(1, storage.calls.size());
+  }
+
+  @Test
+  public void storeIsNotRetriedOnAClientError() {
+    storage.failures.add(new HttpException(400, "Invalid message"));
+
+    CompletableFuture<SaMessageResponse> confirmation = pipeline.ingest(message(), context, headers());
+
+    assertEquals(400, statusOf(confirmation));
+    assertEquals(1, storage.calls.size());
+  }
+
+  @Test
+  public void copyOfAReceivedMessageSharesItsOutcome() {
+    SaMessageResponse first = pipeline.ingest(message(), context, headers()).join();
+    SaMessageResponse second = pipeline.ingest(message(), context, headers()).join();
+
+    assertSame(first, second);
+    assertEquals(1, storage.calls.size());
+  }
+
+  @Test
+  public void requestUpdateIsNotRetriedWhenTheRequestIsMissing() {
+    requests.failures.add(new HttpException(404, "Not found"));
+
+    pipeline.ingest(message(), context, headers()).join();
+
+    await().during(100, MILLISECONDS).atMost(1000, MILLISECONDS).until(() -> requests.updates.get() == 1);
+  }
+
+  @Test
+  public void requestUpdateIsRetriedOnATransientFailure() {
+    requests.failures.add(new HttpException(503, "Unavailable"));
+
+    pipeline.ingest(message(), context, headers()).join();
+
+    await().atMost(1000, MILLISECONDS).until(() -> requests.updates.get() == 2);
+  }
+
+  private static SaMessageRequest message() {
+    return new JsonObject()
+      .put("header", new JsonObject()
+        .put("timestamp", "2021-01-04T10:15:30Z")
+        .put("requestingAgencyRequestId", REQUEST_ID)
+        .put("supplyingAgencyRequestId", SUPPLIER_REQUEST_ID))
+      .put("messageInfo", new JsonObject()
+        .put("reasonForMessage", "StatusChange"))
+      .mapTo(SaMessageRequest.class);
+  }
+
+  private static Map<String, String> headers() {
+    return Map.of(OKAPI_HEADER_TENANT, "diku");
+  }
+
+  private static void inject(Object target, String name, Object value) throws ReflectiveOperationException {
+    Field field = target.getClass().getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(target, value);
+  }
+
+  private static int statusOf(CompletableFuture<?> future) {
+    try {
+      future.join();
+    } catch (CompletionException e) {
+      return ((HttpException) e.getCause()).getCode();
+    }
+    fail("Expected the future to fail");
+    return -1;
+  }
+
+  // Fails the next calls with the queued failures, then stores successfully
+  private static class StubSupplyingAgencyService extends IllSupplyingAgencyService {
+    private final Deque<Throwable> failures = new ArrayDeque<>();
+    private final List<String> calls = new ArrayList<>();
+
+    @Override
+    public synchronized CompletableFuture<SupplyingAgencyMessageStorageResponse> storeSupplierMessage(
+        SupplyingAgencyMessageStorageRequest message, String messageId, String requestId, Context context,
+        Map<String, String> headers) {
+      calls.add(messageId);
+      Throwable failure = failures.poll();
+      if (Objects.nonNull(failure)) {
+        return CompletableFuture.failedFuture(failure);
+      }
+      return CompletableFuture.completedFuture(new SupplyingAgencyMessageStorageResponse().withRequestId(requestId));
+    }
+  }
+
+  private static class StubRequestService implements IllrequestService {
+    private final Deque<Throwable> failures = new ArrayDeque<>();
+    private final AtomicInteger updates = new AtomicInteger();
+
+    @Override
+    public synchronized CompletableFuture<Void> updateSupplierRequestId(String id, String supplierRequestId, Context context,
+        Map<String, String> headers) {
+      updates.incrementAndGet();
+      Throwable failure = failures.poll();
+      if (Objects.nonNull(failure)) {
+        return CompletableFuture.failedFuture(failure);
+      }
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Request> createRequest(Request request, Context context, Map<String, String> headers) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<Request> getRequestById(String id, Context context, Map<String, String> headers) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<Requests> getRequests(int offset, int limit, String lang, String query, Context context,
+        Map<String, String> headers) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<Requests> getRequestsByIds(List<String> ids, Context context, Map<String, String> headers) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<Void> updateRequestById(String id, Request updatedRequest, Context context,
+        Map<String, String> headers) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteRequestById(String id, Context context, Map<String, String> headers) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package org.folio.tracing;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class InMemorySpanExporterTest {
+
+  private static final String TRACE_A = "4bf92f3577b34da6a3ce929d0e0e4736";
+  private static final String TRACE_B = "0af7651916cd43dd8448eb211c80319c";
+
+  @Test
+  public void returnsOnlyTheTracesOfTheCallersTenant() {
+    InMemorySpanExporter exporter = new InMemorySpanExporter(10);
+    end(new Span(TRACE_A, "00f067aa0ba902b7", null, "POST /ill-ra/sa-request", "diku", exporter));
+    end(new Span(TRACE_B, "b7ad6b7169203331", null, "POST /ill-ra/sa-request", "other", exporter));
+
+    JsonArray spans = exporter.getSpans(null, "diku");
+
+    assertEquals(1, spans.size());
+    assertEquals(TRACE_A, spans.getJsonObject(0).getString("traceId"));
+    assertEquals(0, exporter.getSpans(null, null).size());
+  }
+
+  @Test
+  public void returnsTheChildSpansOfATenantsTrace() {
+    InMemorySpanExporter exporter = new InMemorySpanExporter(10);
+    Span root = new Span(TRACE_A, "00f067aa0ba902b7", null, "POST /ill-ra/sa-update", "diku", exporter);
+    end(new Span(TRACE_A, "b7ad6b7169203331", "00f067aa0ba902b7", "POST /ill-ra-storage/messages", null, exporter));
+    end(root);
+
+    JsonArray spans = exporter.getSpans(TRACE_A, "diku");
+
+    assertEquals(2, spans.size());
+    JsonObject child = spans.getJsonObject(0);
+    assertEquals("00f067aa0ba902b7", child.getString("parentId"));
+    assertEquals(Span.OK, child.getString("status"));
+  }
+
+  @Test
+  public void filtersByTraceId() {
+    InMemorySpanExporter exporter = new InMemorySpanExporter(10);
+    end(new Span(TRACE_A, "00f067aa0ba902b7", null, "POST /ill-ra/sa-request", "diku", exporter));
+    end(new Span(TRACE_B, "b7ad6b7169203331", null, "POST /ill-ra/sa-update", "diku", exporter));
+
+    JsonArray spans = exporter.getSpans(TRACE_B, "diku");
+
+    assertEquals(1, spans.size());
+    assertEquals("POST /ill-ra/sa-update", spans.getJsonObject(0).getString("name"));
+  }
+
+  @Test
+  public void evictsTheOldestSpansBeyondTheLimit() {
+    InMemorySpanExporter exporter = new InMemorySpanExporter(2);
+    end(new Span(TRACE_A, "00f067aa0ba902b7", null, "first", "diku", exporter));
+    end(new Span(TRACE_A, "b7ad6b7169203331", null, "second", "diku", exporter));
+    end(new Span(TRACE_A, "53995c3f42cd8ad8", null, "third", "diku", exporter));
+
+    JsonArray spans = exporter.getSpans(TRACE_A, "diku");
+
+    assertEquals(2, spans.size());
+    assertEquals("second", spans.getJsonObject(0).getString("name"));
+    assertEquals("third", spans.getJsonObject(1).getString("name"));
+  }
+
+  @Test
+  public void recordsTheFailureThatEndedASpan() {
+    InMemorySpanExporter exporter = new InMemorySpanExporter(10);
+    Span span = new Span(TRACE_A, "00f067aa0ba902b7", null, "GET /ill-connector/search", "diku", exporter);
+    span.end(new IllegalStateException("connector down"));
+    span.end(null);
+
+    JsonArray spans = exporter.getSpans(TRACE_A, "diku");
+
+    assertEquals(1, spans.size());
+    assertEquals(Span.ERROR, spans.getJsonObject(0).getString("status"));
+    assertEquals("connector down", spans.getJsonObject(0).getJsonObject("attributes").getString("error"));
+  }
+
+  private static void end(Span span) {
+    span.end(null);
+  }
+}
@@ -0,0 +1,103 @@
+package org.folio.util;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxException;
+import org.folio.exception.HttpException;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RetryUtilsTest {
+
+  private static Vertx vertx;
+  private static Context context;
+
+  @BeforeClass
+  public static void setUp() {
+    vertx = Vertx.vertx();
+    context = vertx.getOrCreateContext();
+  }
+
+  @AfterClass
+  public static void tearDown() {
+    vertx.close();
+  }
+
+  @Test
+  public void connectionFailuresAndServerErrorsAreTransient() {
+    assertTrue(RetryUtils.isTransient(new IOException("Connection reset")));
+    assertTrue(RetryUtils.isTransient(new TimeoutException()));
+    assertTrue(RetryUtils.isTransient(new VertxException("Connection was closed")));
+    assertTrue(RetryUtils.isTransient(new HttpException(503, "Unavailable")));
+    assertTrue(RetryUtils.isTransient(new CompletionException(new HttpException(500, "Internal error"))));
+  }
+
+  @Test
+  public void clientErrorsAreNotTransient() {
+    assertFalse(RetryUtils.isTransient(new HttpException(400, "Bad request")));
+    assertFalse(RetryUtils.isTransient(new HttpException(404, "Not found")));
+    assertFalse(RetryUtils.isTransient(new CompletionException(new HttpException(422, "Invalid"))));
+    assertFalse(RetryUtils.isTransient(new IllegalStateException("Bug")));
+  }
+
+  @Test
+  public void transientFailureIsRetriedUntilItSucceeds() {
+    AtomicInteger attempts = new AtomicInteger();
+
+    String result = RetryUtils.withBackoff(context, () -> attempts.incrementAndGet() < 3
+        ? CompletableFuture.<String>failedFuture(new HttpException(503, "Unavailable"))
+        : CompletableFuture.completedFuture("stored"),
+      5, 1, 10, RetryUtils::isTransient).join();
+
+    assertEquals("stored", result);
+    assertEquals(3, attempts.get());
+  }
+
+  @Test
+  public void failureThatIsNotTransientIsNotRetried() {
+    AtomicInteger attempts = new AtomicInteger();
+
+    CompletableFuture<String> result = RetryUtils.withBackoff(context, () -> {
+      attempts.incrementAndGet();
+      return CompletableFuture.failedFuture(new HttpException(404, "Not found"));
+    }, 5, 1, 10, RetryUtils::isTransient);
+
+    assertEquals(404, statusOf(result));
+    assertEquals(1, attempts.get());
+  }
+
+  @Test
+  public void lastFailureIsReturnedOnceTheAttemptsAreUsedUp() {
+    AtomicInteger attempts = new AtomicInteger();
+
+    CompletableFuture<String> result = RetryUtils.withBackoff(context, () -> {
+      attempts.incrementAndGet();
+      return CompletableFuture.failedFuture(new HttpException(503, "Unavailable"));
+    }, 3, 1, 10, RetryUtils::isTransient);
+
+    assertEquals(503, statusOf(result));
+    assertEquals(3, attempts.get());
+  }
+
+  private static int statusOf(CompletableFuture<?> future) {
+    try {
+      future.join();
+    } catch (CompletionException e) {
+      return ((HttpException) e.getCause()).getCode();
+    }
+    fail("Expected the future to fail");
+    return -1;
+  }
+}